@@ -0,0 +1,106 @@
+package com.example.ragapi.admission;
+
+import com.example.ragapi.model.ErrorResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Puts {@link AdmissionGate} in front of the query and document ingestion endpoints.
+ *
+ * Rejected requests get a 429 with a Retry-After header (whole seconds, rounded up)
+ * before any Bedrock or OpenSearch work starts. Queries and document search use the
+ * query slot pool; indexing and deletes use the ingestion pool.
+ *
+ * Only the servlet transport is gated. {@code LambdaHandler} serves one request per
+ * execution environment and relies on the function's reserved concurrency instead.
+ */
+@Component
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionFilter.class);
+
+    private static final String QUERY_PATH = "/api/v1/rag/query";
+    private static final String DOCUMENTS_PATH = "/api/v1/documents";
+    private static final String SEARCH_PATH = DOCUMENTS_PATH + "/search";
+    private static final String STREAM_PATH = DOCUMENTS_PATH + "/index/stream";
+
+    private final AdmissionGate admissionGate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${admission.enabled:true}")
+    private boolean enabled;
+
+    public AdmissionFilter(AdmissionGate admissionGate, ObjectMapper objectMapper) {
+        this.admissionGate = admissionGate;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!enabled) {
+            return true;
+        }
+        String path = request.getRequestURI();
+        boolean query = path.equals(QUERY_PATH);
+        boolean ingestion = path.startsWith(DOCUMENTS_PATH) && !HttpMethod.GET.matches(request.getMethod());
+        return !(query || ingestion);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String client = request.getHeader("X-ClientName");
+        AdmissionGate.Priority priority = admissionGate.priorityFor(request.getHeader("X-UserRole"));
+
+        AdmissionGate.Decision decision;
+        try {
+            decision = admissionGate.admit(client != null ? client : "unknown", priority, workload(request));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(request, response, "interrupted", 1000);
+            return;
+        }
+
+        if (!decision.isAdmitted()) {
+            reject(request, response, decision.reason(), decision.retryAfterMs());
+            return;
+        }
+
+        try (AdmissionGate.Admission ignored = decision.admission()) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    private static AdmissionGate.Workload workload(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        if (path.equals(QUERY_PATH) || path.equals(SEARCH_PATH)) {
+            return AdmissionGate.Workload.QUERY;
+        }
+        return path.equals(STREAM_PATH) ? AdmissionGate.Workload.STREAMING_INGESTION : AdmissionGate.Workload.INGESTION;
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, String reason, long retryAfterMs)
+            throws IOException {
+        logger.warn("Shedding {} {} from client {}: {}", request.getMethod(), request.getRequestURI(),
+                request.getHeader("X-ClientName"), reason);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, (retryAfterMs + 999) / 1000)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ErrorResponse.create(
+                429, "Too Many Requests", "Request shed by admission control: " + reason, request.getRequestURI()));
+    }
+}
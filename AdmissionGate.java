@@ -0,0 +1,357 @@
+package com.example.ragapi.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Admission control for expensive endpoints.
+ *
+ * A request first takes a token from its client's bucket, then waits for one of a fixed
+ * number of execution slots. Waiters are queued per priority class and a freed slot
+ * always goes to the highest class first. Queues are bounded, and a request whose
+ * estimated wait (queue position times the moving average service time) exceeds its
+ * class's budget is rejected up front instead of timing out later.
+ *
+ * Queries and ingestion draw on separate slot pools, each with its own service-time
+ * average, so slow batch indexing neither takes query slots nor inflates the query wait
+ * estimate. Streaming ingestion holds its slot for the whole stream and is left out of
+ * the average.
+ *
+ * Only clients listed in {@code admission.client.rates} get a bucket of their own; every
+ * other client name shares one bucket at the default rate. The header is caller-supplied,
+ * so a bucket per name would let a caller escape its limit by rotating names, and would
+ * grow without bound.
+ */
+@Component
+public class AdmissionGate {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionGate.class);
+
+    /** Weight of the newest sample in the service-time moving average */
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final Set<String> highPriorityRoles;
+    private final Set<String> lowPriorityRoles;
+    private final int[] queueCapacity;
+    private final long[] maxQueueWaitMs;
+
+    private final Map<String, TokenBucket> clientBuckets;
+    private final TokenBucket sharedBucket;
+    private final SlotPool queryPool;
+    private final SlotPool ingestionPool;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public AdmissionGate(
+            MeterRegistry meterRegistry,
+            @Value("${admission.max-concurrent:32}") int maxConcurrent,
+            @Value("${admission.ingestion.max-concurrent:8}") int maxConcurrentIngestion,
+            @Value("${admission.client.default-rate-per-second:20}") double defaultRatePerSecond,
+            @Value("${admission.client.burst-seconds:2}") double burstSeconds,
+            @Value("#{${admission.client.rates:{:}}}") Map<String, Double> clientRates,
+            @Value("${admission.priority.high-roles:}") Set<String> highPriorityRoles,
+            @Value("${admission.priority.low-roles:}") Set<String> lowPriorityRoles,
+            @Value("${admission.queue.capacity.high:64}") int highCapacity,
+            @Value("${admission.queue.capacity.normal:128}") int normalCapacity,
+            @Value("${admission.queue.capacity.low:32}") int lowCapacity,
+            @Value("${admission.queue.max-wait-ms.high:5000}") long highMaxWaitMs,
+            @Value("${admission.queue.max-wait-ms.normal:2000}") long normalMaxWaitMs,
+            @Value("${admission.queue.max-wait-ms.low:500}") long lowMaxWaitMs,
+            @Value("${admission.initial-service-time-ms:1000}") double initialServiceMs,
+            @Value("${admission.ingestion.initial-service-time-ms:5000}") double initialIngestionServiceMs) {
+        this.meterRegistry = meterRegistry;
+        this.clientBuckets = clientRates.entrySet().stream().collect(Collectors.toUnmodifiableMap(
+                Map.Entry::getKey, entry -> newBucket(entry.getValue(), burstSeconds)));
+        this.sharedBucket = newBucket(defaultRatePerSecond, burstSeconds);
+        this.highPriorityRoles = Set.copyOf(highPriorityRoles);
+        this.lowPriorityRoles = Set.copyOf(lowPriorityRoles);
+        this.queueCapacity = new int[]{highCapacity, normalCapacity, lowCapacity};
+        this.maxQueueWaitMs = new long[]{highMaxWaitMs, normalMaxWaitMs, lowMaxWaitMs};
+        this.queryPool = new SlotPool("query", maxConcurrent, initialServiceMs, meterRegistry);
+        this.ingestionPool = new SlotPool("ingestion", maxConcurrentIngestion, initialIngestionServiceMs, meterRegistry);
+    }
+
+    /**
+     * Priority class for a caller role; unknown or missing roles are normal priority
+     */
+    public Priority priorityFor(String userRole) {
+        if (userRole != null && highPriorityRoles.contains(userRole)) {
+            return Priority.HIGH;
+        }
+        if (userRole != null && lowPriorityRoles.contains(userRole)) {
+            return Priority.LOW;
+        }
+        return Priority.NORMAL;
+    }
+
+    /**
+     * Admit a request or say how long the caller should wait before retrying.
+     * An admitted request must be released with {@link Admission#close()}.
+     */
+    public Decision admit(String client, Priority priority, Workload workload) throws InterruptedException {
+        long retryAfterMs = clientBuckets.getOrDefault(client, sharedBucket).tryAcquire();
+        if (retryAfterMs > 0) {
+            return reject("rate_limited", priority, workload, retryAfterMs);
+        }
+
+        SlotPool pool = workload == Workload.QUERY ? queryPool : ingestionPool;
+        int index = priority.ordinal();
+        Waiter waiter = null;
+        pool.lock.lock();
+        try {
+            if (pool.inFlight < pool.maxConcurrent && pool.queuedAtOrAbove(index) == 0) {
+                pool.inFlight++;
+                return Decision.admitted(new Admission(pool, workload.sampled, System.nanoTime()));
+            }
+            long estimatedWaitMs = pool.estimatedWaitMs(pool.queuedAtOrAbove(index) + 1);
+            if (pool.queues[index].size() >= queueCapacity[index]) {
+                return reject("queue_full", priority, workload, estimatedWaitMs);
+            }
+            if (estimatedWaitMs > maxQueueWaitMs[index]) {
+                return reject("deadline", priority, workload, estimatedWaitMs);
+            }
+            waiter = new Waiter(pool.lock.newCondition());
+            pool.queues[index].addLast(waiter);
+
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(maxQueueWaitMs[index]);
+            while (!waiter.granted && remainingNanos > 0) {
+                remainingNanos = waiter.condition.awaitNanos(remainingNanos);
+            }
+            if (!waiter.granted) {
+                pool.queues[index].remove(waiter);
+                return reject("timeout", priority, workload, pool.estimatedWaitMs(pool.queuedAtOrAbove(index) + 1));
+            }
+        } catch (InterruptedException e) {
+            if (waiter != null && waiter.granted) {
+                // A slot handed over while we were being interrupted must not leak
+                pool.release(0);
+            } else if (waiter != null) {
+                pool.queues[index].remove(waiter);
+            }
+            throw e;
+        } finally {
+            pool.lock.unlock();
+        }
+        return Decision.admitted(new Admission(pool, workload.sampled, System.nanoTime()));
+    }
+
+    private static TokenBucket newBucket(double rate, double burstSeconds) {
+        return new TokenBucket(rate, Math.max(1.0, rate * burstSeconds));
+    }
+
+    private Decision reject(String reason, Priority priority, Workload workload, long retryAfterMs) {
+        String pool = workload == Workload.QUERY ? queryPool.name : ingestionPool.name;
+        rejections.computeIfAbsent(reason + "|" + priority.tagValue() + "|" + pool,
+                        key -> Counter.builder("admission.rejected")
+                                .description("Requests shed by admission control")
+                                .tag("reason", reason)
+                                .tag("priority", priority.tagValue())
+                                .tag("pool", pool)
+                                .register(meterRegistry))
+                .increment();
+        logger.debug("Rejected {} priority {} request: {} (retry after {}ms)",
+                priority.tagValue(), pool, reason, retryAfterMs);
+        return Decision.rejected(reason, Math.max(1, retryAfterMs));
+    }
+
+    /**
+     * Query pool queue depth per priority class, highest first
+     */
+    public int[] queueDepths() {
+        return queryPool.queueDepths();
+    }
+
+    /**
+     * Priority classes, highest first
+     */
+    public enum Priority {
+        HIGH("high"),
+        NORMAL("normal"),
+        LOW("low");
+
+        private final String tagValue;
+
+        Priority(String tagValue) {
+            this.tagValue = tagValue;
+        }
+
+        public String tagValue() {
+            return tagValue;
+        }
+    }
+
+    /**
+     * Kind of work behind a request, which decides its slot pool and whether its
+     * duration feeds that pool's service-time average
+     */
+    public enum Workload {
+        QUERY(true),
+        INGESTION(true),
+        /** Holds a slot for as long as the client keeps streaming */
+        STREAMING_INGESTION(false);
+
+        private final boolean sampled;
+
+        Workload(boolean sampled) {
+            this.sampled = sampled;
+        }
+    }
+
+    /**
+     * Outcome of an admission attempt; admission is null when rejected
+     */
+    public record Decision(Admission admission, String reason, long retryAfterMs) {
+
+        static Decision admitted(Admission admission) {
+            return new Decision(admission, null, 0);
+        }
+
+        static Decision rejected(String reason, long retryAfterMs) {
+            return new Decision(null, reason, retryAfterMs);
+        }
+
+        public boolean isAdmitted() {
+            return admission != null;
+        }
+    }
+
+    /**
+     * Execution slot held by an admitted request
+     */
+    public static final class Admission implements AutoCloseable {
+
+        private final SlotPool pool;
+        private final boolean sampled;
+        private final long admittedNanos;
+        private boolean closed;
+
+        private Admission(SlotPool pool, boolean sampled, long admittedNanos) {
+            this.pool = pool;
+            this.sampled = sampled;
+            this.admittedNanos = admittedNanos;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                pool.release(sampled ? System.nanoTime() - admittedNanos : 0);
+            }
+        }
+    }
+
+    /**
+     * Execution slots, priority queues and service-time average of one workload
+     */
+    private static final class SlotPool {
+
+        private final String name;
+        private final int maxConcurrent;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Deque<Waiter>[] queues;
+        private volatile int inFlight;
+        private volatile double avgServiceMs;
+
+        @SuppressWarnings("unchecked")
+        private SlotPool(String name, int maxConcurrent, double initialServiceMs, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.maxConcurrent = maxConcurrent;
+            this.avgServiceMs = initialServiceMs;
+
+            this.queues = new Deque[Priority.values().length];
+            for (Priority priority : Priority.values()) {
+                Deque<Waiter> queue = new ArrayDeque<>();
+                queues[priority.ordinal()] = queue;
+                Gauge.builder("admission.queue.depth", queue, Deque::size)
+                        .description("Requests waiting for an execution slot")
+                        .tags(List.of(Tag.of("priority", priority.tagValue()), Tag.of("pool", name)))
+                        .register(meterRegistry);
+            }
+            Gauge.builder("admission.in.flight", this, pool -> pool.inFlight)
+                    .description("Requests holding an execution slot")
+                    .tag("pool", name)
+                    .register(meterRegistry);
+            Gauge.builder("admission.utilization", this, pool -> (double) pool.inFlight / pool.maxConcurrent)
+                    .tag("pool", name)
+                    .register(meterRegistry);
+            Gauge.builder("admission.service.time.avg", this, pool -> pool.avgServiceMs)
+                    .baseUnit("milliseconds")
+                    .tag("pool", name)
+                    .register(meterRegistry);
+        }
+
+        /**
+         * Free a slot, or hand it to the next waiter; a zero duration leaves the average alone
+         */
+        private void release(long serviceNanos) {
+            if (serviceNanos > 0) {
+                avgServiceMs = avgServiceMs + EWMA_ALPHA * (serviceNanos / 1e6 - avgServiceMs);
+            }
+            lock.lock();
+            try {
+                for (Deque<Waiter> queue : queues) {
+                    Waiter next = queue.pollFirst();
+                    if (next != null) {
+                        // Slot passes straight to the waiter; inFlight is unchanged
+                        next.granted = true;
+                        next.condition.signal();
+                        return;
+                    }
+                }
+                inFlight--;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int queuedAtOrAbove(int index) {
+            int queued = 0;
+            for (int i = 0; i <= index; i++) {
+                queued += queues[i].size();
+            }
+            return queued;
+        }
+
+        private long estimatedWaitMs(int position) {
+            return (long) Math.ceil((double) position / maxConcurrent * avgServiceMs);
+        }
+
+        private int[] queueDepths() {
+            lock.lock();
+            try {
+                return Arrays.stream(queues).mapToInt(Deque::size).toArray();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static final class Waiter {
+
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.ragapi.resilience;
+
+import com.example.ragapi.metrics.PipelineContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Resilience layer for Bedrock model calls.
+ *
+ * Each call runs on a virtual thread under a hard deadline. If it has not finished by the
+ * model's recent latency percentile, one duplicate (hedge) is sent and whichever succeeds
+ * first wins; hedges are capped to a fraction of traffic. Failed calls are retried only
+ * while the retry budget allows, and a per-model circuit breaker rejects calls outright
+ * once the failure rate crosses its threshold.
+ */
+@Component
+public class BedrockResilience implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(BedrockResilience.class);
+
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Executor requestExecutor = PipelineContext.propagating(executor);
+    private final Map<String, ModelGuard> guards = new ConcurrentHashMap<>();
+
+    @Value("${bedrock.resilience.hedge.enabled:true}")
+    private boolean hedgeEnabled;
+
+    @Value("${bedrock.resilience.hedge.percentile:0.95}")
+    private double hedgePercentile;
+
+    @Value("${bedrock.resilience.hedge.max-ratio:0.05}")
+    private double maxHedgeRatio;
+
+    @Value("${bedrock.resilience.hedge.min-samples:50}")
+    private int hedgeMinSamples;
+
+    @Value("${bedrock.resilience.retry.max-retries:2}")
+    private int maxRetries;
+
+    @Value("${bedrock.resilience.retry.budget-ratio:0.1}")
+    private double retryBudgetRatio;
+
+    @Value("${bedrock.resilience.retry.backoff-ms:100}")
+    private long retryBackoffMs;
+
+    @Value("${bedrock.resilience.circuit.window-size:50}")
+    private int circuitWindowSize;
+
+    @Value("${bedrock.resilience.circuit.failure-rate-threshold:0.5}")
+    private double circuitFailureRateThreshold;
+
+    @Value("${bedrock.resilience.circuit.open-ms:15000}")
+    private long circuitOpenMs;
+
+    public BedrockResilience(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Run a model call with hedging, retries and circuit breaking
+     *
+     * @throws CircuitOpenException if the model's breaker is open
+     */
+    public <T> T call(String modelId, Duration timeout, Supplier<T> work) {
+        ModelGuard guard = guards.computeIfAbsent(modelId, this::newGuard);
+        guard.retryBudget.deposit();
+        guard.hedgeBudget.deposit();
+
+        for (int attempt = 0; ; attempt++) {
+            if (!guard.breaker.tryAcquire()) {
+                guard.circuitRejected.increment();
+                throw new CircuitOpenException("Circuit open for Bedrock model " + modelId);
+            }
+            try {
+                T result = hedged(guard, timeout, work);
+                guard.breaker.onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                if (isCallerError(e)) {
+                    // A malformed request says nothing about the model's health
+                    guard.breaker.onSuccess();
+                    throw e;
+                }
+                guard.breaker.onFailure();
+                if (attempt >= maxRetries) {
+                    throw e;
+                }
+                if (!guard.retryBudget.tryWithdraw()) {
+                    guard.retryBudgetExhausted.increment();
+                    throw e;
+                }
+                guard.retries.increment();
+                logger.warn("Retrying Bedrock call to {} after failure: {}", modelId, e.getMessage());
+                sleepBeforeRetry(attempt);
+            }
+        }
+    }
+
+    private <T> T hedged(ModelGuard guard, Duration timeout, Supplier<T> work) {
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
+        ExecutorCompletionService<T> completion = new ExecutorCompletionService<>(requestExecutor);
+        List<Future<T>> futures = new ArrayList<>(2);
+        Future<T> hedge = null;
+
+        futures.add(completion.submit(() -> timed(guard, work)));
+        try {
+            long hedgeDelayNanos = hedgeEnabled ? guard.latency.percentileNanos() : 0;
+            if (hedgeDelayNanos > 0 && guard.samples.get() >= hedgeMinSamples) {
+                Future<T> first = completion.poll(Math.min(hedgeDelayNanos, remaining(deadlineNanos)), TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    return first.get();
+                }
+                if (remaining(deadlineNanos) > 0 && guard.hedgeBudget.tryWithdraw()) {
+                    hedge = completion.submit(() -> timed(guard, work));
+                    futures.add(hedge);
+                    guard.hedgesSent.increment();
+                }
+            }
+
+            ExecutionException lastFailure = null;
+            for (int pending = futures.size(); pending > 0; pending--) {
+                Future<T> done = completion.poll(remaining(deadlineNanos), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    guard.timeouts.increment();
+                    throw new RuntimeException("Bedrock call to " + guard.modelId + " timed out after " + timeout.toMillis() + "ms");
+                }
+                try {
+                    T result = done.get();
+                    if (done == hedge) {
+                        guard.hedgeWins.increment();
+                    }
+                    return result;
+                } catch (ExecutionException e) {
+                    lastFailure = e;
+                }
+            }
+            throw unwrap(lastFailure);
+        } catch (ExecutionException e) {
+            throw unwrap(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for Bedrock model " + guard.modelId, e);
+        } finally {
+            // Losers and timed-out calls are interrupted, which aborts their HTTP exchange
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private <T> T timed(ModelGuard guard, Supplier<T> work) {
+        long startNanos = System.nanoTime();
+        T result = work.get();
+        guard.latency.record(System.nanoTime() - startNanos);
+        guard.samples.incrementAndGet();
+        return result;
+    }
+
+    private static long remaining(long deadlineNanos) {
+        return Math.max(0, deadlineNanos - System.nanoTime());
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtime && !(cause instanceof CancellationException)) {
+            return runtime;
+        }
+        return new RuntimeException("Bedrock call failed", cause);
+    }
+
+    private static boolean isCallerError(Throwable e) {
+        for (Throwable current = e; current != null; current = current.getCause()) {
+            if (current instanceof AwsServiceException service) {
+                int status = service.statusCode();
+                return status >= 400 && status < 500 && status != 408 && status != 429;
+            }
+        }
+        return false;
+    }
+
+    private void sleepBeforeRetry(int attempt) {
+        long backoff = retryBackoffMs << attempt;
+        try {
+            Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted before retrying Bedrock call", e);
+        }
+    }
+
+    private ModelGuard newGuard(String modelId) {
+        ModelGuard guard = new ModelGuard(modelId, meterRegistry,
+                new CircuitBreaker(circuitWindowSize, circuitFailureRateThreshold, circuitOpenMs),
+                new LatencyTracker(1024, hedgePercentile, 32),
+                new RatioBudget(retryBudgetRatio, 10),
+                new RatioBudget(maxHedgeRatio, 10));
+        logger.info("Bedrock resilience enabled for {} (hedge at p{}, max hedge ratio {}, retry budget {})",
+                modelId, Math.round(hedgePercentile * 100), maxHedgeRatio, retryBudgetRatio);
+        return guard;
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Thrown without calling Bedrock while a model's circuit breaker is open
+     */
+    public static class CircuitOpenException extends RuntimeException {
+        public CircuitOpenException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Breaker, latency window, budgets and meters of one model
+     */
+    private static final class ModelGuard {
+
+        private final String modelId;
+        private final CircuitBreaker breaker;
+        private final LatencyTracker latency;
+        private final RatioBudget retryBudget;
+        private final RatioBudget hedgeBudget;
+        private final AtomicLong samples = new AtomicLong();
+
+        private final Counter hedgesSent;
+        private final Counter hedgeWins;
+        private final Counter retries;
+        private final Counter retryBudgetExhausted;
+        private final Counter circuitRejected;
+        private final Counter timeouts;
+
+        private ModelGuard(String modelId, MeterRegistry registry, CircuitBreaker breaker, LatencyTracker latency,
+                           RatioBudget retryBudget, RatioBudget hedgeBudget) {
+            this.modelId = modelId;
+            this.breaker = breaker;
+            this.latency = latency;
+            this.retryBudget = retryBudget;
+            this.hedgeBudget = hedgeBudget;
+
+            this.hedgesSent = Counter.builder("bedrock.hedge.sent").tag("model", modelId).register(registry);
+            this.hedgeWins = Counter.builder("bedrock.hedge.wins")
+                    .description("Hedged requests that finished before the original")
+                    .tag("model", modelId).register(registry);
+            this.retries = Counter.builder("bedrock.retry.attempts").tag("model", modelId).register(registry);
+            this.retryBudgetExhausted = Counter.builder("bedrock.retry.budget.exhausted")
+                    .description("Failures not retried because the retry budget was empty")
+                    .tag("model", modelId).register(registry);
+            this.circuitRejected = Counter.builder("bedrock.circuit.rejected").tag("model", modelId).register(registry);
+            this.timeouts = Counter.builder("bedrock.call.timeouts").tag("model", modelId).register(registry);
+
+            Gauge.builder("bedrock.circuit.state", breaker, b -> b.state().gaugeValue())
+                    .description("0 = closed, 1 = half-open, 2 = open")
+                    .tag("model", modelId).register(registry);
+            Gauge.builder("bedrock.hedge.win.rate", this,
+                            guard -> guard.hedgesSent.count() == 0 ? 0.0 : guard.hedgeWins.count() / guard.hedgesSent.count())
+                    .tag("model", modelId).register(registry);
+            Gauge.builder("bedrock.hedge.delay", latency, tracker -> tracker.percentileNanos() / 1e6)
+                    .baseUnit("milliseconds")
+                    .tag("model", modelId).register(registry);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.ragapi.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local HTTP stand-in for the Bedrock runtime InvokeModel API.
+ *
+ * Embedding models return a deterministic unit vector derived from the input text so
+ * that repeated runs retrieve the same chunks; every other model returns a short
+ * Claude-shaped answer. Point the service at it with
+ * {@code --bedrock.endpoint-override=http://localhost:<port>}.
+ *
+ * Each model family can be given a {@link Behavior}: a log-normal latency distribution
+ * described by its median and p99, and a request-rate quota above which calls are
+ * rejected with a 429 {@code ThrottlingException}, as Bedrock does when a quota is hit.
+ */
+public class BedrockStandIn implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BedrockStandIn.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String CANNED_ANSWER =
+            "Based on the provided documents, the plan covers this benefit subject to the standard deductible.";
+
+    private final HttpServer server;
+    private final int embeddingDimension;
+    private final ModelFamily embedding;
+    private final ModelFamily chat;
+
+    public BedrockStandIn(int port, int embeddingDimension) throws IOException {
+        this(port, embeddingDimension, Behavior.INSTANT, Behavior.INSTANT);
+    }
+
+    public BedrockStandIn(int port, int embeddingDimension, Behavior embeddingBehavior, Behavior chatBehavior)
+            throws IOException {
+        this.embeddingDimension = embeddingDimension;
+        this.embedding = new ModelFamily(embeddingBehavior);
+        this.chat = new ModelFamily(chatBehavior);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext("/model/", this::handleInvoke);
+    }
+
+    public BedrockStandIn start() {
+        server.start();
+        logger.info("Bedrock stand-in listening on {} (embedding: {}, chat: {})",
+                endpoint(), embedding.behavior, chat.behavior);
+        return this;
+    }
+
+    /**
+     * Requests served and throttled so far, per model family
+     */
+    public Stats stats() {
+        return new Stats(embedding.served.get(), embedding.throttled.get(), chat.served.get(), chat.throttled.get());
+    }
+
+    public String endpoint() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handleInvoke(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            // Path: /model/{modelId}/invoke
+            String path = exchange.getRequestURI().getRawPath();
+            String modelId = URLDecoder.decode(
+                    path.substring("/model/".length(), path.lastIndexOf('/')), StandardCharsets.UTF_8);
+
+            boolean isEmbedding = modelId.contains("embed");
+            ModelFamily family = isEmbedding ? embedding : chat;
+
+            JsonNode request;
+            try (InputStream body = exchange.getRequestBody()) {
+                request = MAPPER.readTree(body);
+            }
+
+            if (!family.tryAcquire()) {
+                family.throttled.incrementAndGet();
+                exchange.getResponseHeaders().add("x-amzn-ErrorType", "ThrottlingException");
+                send(exchange, 429, MAPPER.createObjectNode()
+                        .put("message", "Too many requests, please wait before trying again."));
+                return;
+            }
+
+            family.simulateLatency();
+            ObjectNode response = isEmbedding
+                    ? embeddingResponse(request.path("inputText").asText(""))
+                    : chatResponse(request);
+            family.served.incrementAndGet();
+            send(exchange, 200, response);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, ObjectNode body) throws IOException {
+        byte[] bytes = MAPPER.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private ObjectNode embeddingResponse(String inputText) {
+        SplittableRandom random = new SplittableRandom(inputText.hashCode());
+        float[] vector = new float[embeddingDimension];
+        double norm = 0.0;
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) (random.nextDouble() * 2.0 - 1.0);
+            norm += vector[i] * vector[i];
+        }
+        norm = Math.sqrt(norm);
+
+        ObjectNode response = MAPPER.createObjectNode();
+        ArrayNode embedding = response.putArray("embedding");
+        for (float value : vector) {
+            embedding.add(value / norm);
+        }
+        response.put("inputTextTokenCount", Math.max(1, inputText.length() / 4));
+        return response;
+    }
+
+    private ObjectNode chatResponse(JsonNode request) {
+        int promptChars = request.toString().length();
+
+        ObjectNode response = MAPPER.createObjectNode();
+        // Legacy text-completions shape
+        response.put("completion", CANNED_ANSWER);
+        response.put("stop_reason", "end_turn");
+        // Messages API shape
+        response.put("id", "msg_standin");
+        response.put("type", "message");
+        response.put("role", "assistant");
+        response.putArray("content").addObject()
+                .put("type", "text")
+                .put("text", CANNED_ANSWER);
+        response.putObject("usage")
+                .put("input_tokens", Math.max(1, promptChars / 4))
+                .put("output_tokens", CANNED_ANSWER.length() / 4);
+        return response;
+    }
+
+    /**
+     * Latency and quota of one model family; {@code maxRequestsPerSecond <= 0} disables throttling
+     */
+    public record Behavior(double medianLatencyMs, double p99LatencyMs, double maxRequestsPerSecond) {
+
+        public static final Behavior INSTANT = new Behavior(0, 0, 0);
+
+        /** z-score of the 99th percentile of a standard normal distribution */
+        private static final double Z_99 = 2.326;
+
+        /**
+         * Sample a log-normal latency with the configured median and p99
+         */
+        long sampleMillis() {
+            if (medianLatencyMs <= 0) {
+                return 0;
+            }
+            double sigma = p99LatencyMs > medianLatencyMs ? Math.log(p99LatencyMs / medianLatencyMs) / Z_99 : 0.0;
+            double latency = medianLatencyMs * Math.exp(sigma * ThreadLocalRandom.current().nextGaussian());
+            return Math.round(latency);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("median=%.0fms p99=%.0fms quota=%s", medianLatencyMs, p99LatencyMs,
+                    maxRequestsPerSecond > 0 ? String.format("%.0f/s", maxRequestsPerSecond) : "none");
+        }
+    }
+
+    /**
+     * Served and throttled request counts
+     */
+    public record Stats(long embeddingServed, long embeddingThrottled, long chatServed, long chatThrottled) {
+    }
+
+    /**
+     * Behavior of one model family plus its one-second token bucket and counters
+     */
+    private static final class ModelFamily {
+
+        private final Behavior behavior;
+        private final AtomicLong served = new AtomicLong();
+        private final AtomicLong throttled = new AtomicLong();
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        private ModelFamily(Behavior behavior) {
+            this.behavior = behavior;
+            this.tokens = behavior.maxRequestsPerSecond();
+        }
+
+        synchronized boolean tryAcquire() {
+            double rate = behavior.maxRequestsPerSecond();
+            if (rate <= 0) {
+                return true;
+            }
+            long now = System.nanoTime();
+            tokens = Math.min(rate, tokens + (now - lastRefillNanos) / 1e9 * rate);
+            lastRefillNanos = now;
+            if (tokens < 1.0) {
+                return false;
+            }
+            tokens -= 1.0;
+            return true;
+        }
+
+        void simulateLatency() {
+            long latencyMs = behavior.sampleMillis();
+            if (latencyMs <= 0) {
+                return;
+            }
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Usage: {@code BedrockStandIn [port] [dimension] [embedMedianMs embedP99Ms embedRps chatMedianMs chatP99Ms chatRps]}
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8089;
+        int dimension = args.length > 1 ? Integer.parseInt(args[1]) : 1536;
+        Behavior embeddingBehavior = args.length > 4 ? new Behavior(Double.parseDouble(args[2]),
+                Double.parseDouble(args[3]), Double.parseDouble(args[4])) : Behavior.INSTANT;
+        Behavior chatBehavior = args.length > 7 ? new Behavior(Double.parseDouble(args[5]),
+                Double.parseDouble(args[6]), Double.parseDouble(args[7])) : Behavior.INSTANT;
+        new BedrockStandIn(port, dimension, embeddingBehavior, chatBehavior).start();
+        Thread.currentThread().join();
+    }
+}
@@ -2,11 +2,11 @@ package com.benefitsassist.entity;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
-import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.UpdateTimestamp;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.UUID;
 
 /**
  * JPA Entity for Benefits Assist Inference History
@@ -15,10 +15,13 @@ import java.time.OffsetDateTime;
 @Table(name = "benefits_assist_inference_history")
 public class BenefitsAssistInferenceHistory {
 
+    /**
+     * Client-side UUID so that inserts need no round-trip for key generation and can be batched
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.UUID)
     @Column(name = "id")
-    private Long id;
+    private UUID id;
 
     @NotBlank
     @Column(name = "client_name", length = 255, nullable = false)
@@ -85,36 +88,42 @@ public class BenefitsAssistInferenceHistory {
     @Column(name = "embedding_model_version", length = 50)
     private String embeddingModelVersion;
 
-    @Column(name = "inference_confidence_score", length = 50)
-    private String inferenceConfidenceScore;
+    @DecimalMin("0.0")
+    @DecimalMax("1.0")
+    @Column(name = "inference_confidence_score", precision = 5, scale = 4)
+    private BigDecimal inferenceConfidenceScore;
 
     @Column(name = "conversation_intent", length = 255)
     private String conversationIntent;
 
-    @Column(name = "prompt_tokens", length = 255)
-    private String promptTokens;
+    @PositiveOrZero
+    @Column(name = "prompt_tokens")
+    private Integer promptTokens;
 
-    @Column(name = "completion_tokens", length = 255)
-    private String completionTokens;
+    @PositiveOrZero
+    @Column(name = "completion_tokens")
+    private Integer completionTokens;
 
-    @Column(name = "total_tokens", length = 255)
-    private String totalTokens;
+    @PositiveOrZero
+    @Column(name = "total_tokens")
+    private Integer totalTokens;
 
-    @Column(name = "rag_chunks_retrieved", length = 255)
-    private String ragChunksRetrieved;
+    @PositiveOrZero
+    @Column(name = "rag_chunks_retrieved")
+    private Integer ragChunksRetrieved;
 
-    @Column(name = "rag_retrieval_score", length = 255)
-    private String ragRetrievalScore;
+    @Column(name = "rag_retrieval_score")
+    private Double ragRetrievalScore;
 
     // Constructors
     public BenefitsAssistInferenceHistory() {}
 
     // Getters and Setters
-    public Long getId() {
+    public UUID getId() {
         return id;
     }
 
-    public void setId(Long id) {
+    public void setId(UUID id) {
         this.id = id;
     }
 
@@ -262,11 +271,11 @@ public class BenefitsAssistInferenceHistory {
         this.embeddingModelVersion = embeddingModelVersion;
     }
 
-    public String getInferenceConfidenceScore() {
+    public BigDecimal getInferenceConfidenceScore() {
         return inferenceConfidenceScore;
     }
 
-    public void setInferenceConfidenceScore(String inferenceConfidenceScore) {
+    public void setInferenceConfidenceScore(BigDecimal inferenceConfidenceScore) {
         this.inferenceConfidenceScore = inferenceConfidenceScore;
     }
 
@@ -278,43 +287,43 @@ public class BenefitsAssistInferenceHistory {
         this.conversationIntent = conversationIntent;
     }
 
-    public String getPromptTokens() {
+    public Integer getPromptTokens() {
         return promptTokens;
     }
 
-    public void setPromptTokens(String promptTokens) {
+    public void setPromptTokens(Integer promptTokens) {
         this.promptTokens = promptTokens;
     }
 
-    public String getCompletionTokens() {
+    public Integer getCompletionTokens() {
         return completionTokens;
     }
 
-    public void setCompletionTokens(String completionTokens) {
+    public void setCompletionTokens(Integer completionTokens) {
         this.completionTokens = completionTokens;
     }
 
-    public String getTotalTokens() {
+    public Integer getTotalTokens() {
         return totalTokens;
     }
 
-    public void setTotalTokens(String totalTokens) {
+    public void setTotalTokens(Integer totalTokens) {
         this.totalTokens = totalTokens;
     }
 
-    public String getRagChunksRetrieved() {
+    public Integer getRagChunksRetrieved() {
         return ragChunksRetrieved;
     }
 
-    public void setRagChunksRetrieved(String ragChunksRetrieved) {
+    public void setRagChunksRetrieved(Integer ragChunksRetrieved) {
         this.ragChunksRetrieved = ragChunksRetrieved;
     }
 
-    public String getRagRetrievalScore() {
+    public Double getRagRetrievalScore() {
         return ragRetrievalScore;
     }
 
-    public void setRagRetrievalScore(String ragRetrievalScore) {
+    public void setRagRetrievalScore(Double ragRetrievalScore) {
         this.ragRetrievalScore = ragRetrievalScore;
     }
 
@@ -328,7 +337,7 @@ public class BenefitsAssistInferenceHistory {
                 ", messageId='" + messageId + '\'' +
                 ", requestDate=" + requestDate +
                 ", conversationModelName='" + conversationModelName + '\'' +
-                ", totalTokens='" + totalTokens + '\'' +
+                ", totalTokens=" + totalTokens +
                 '}';
     }
 
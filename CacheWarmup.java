@@ -0,0 +1,179 @@
+package com.example.ragapi.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Warms the question embedding cache with popular questions once the application has started.
+ *
+ * Questions come from a warm-set file (one per line) or, without one, from the most
+ * frequent recent questions in the inference history. Each is embedded a few at a time
+ * so Bedrock quotas are not spent at once. Retrievals are not warmed: their cache key
+ * carries the caller's scope, filters and result count, and entries expire after a few
+ * minutes, so a warmed retrieval would rarely be hit. Until warm-up completes or times
+ * out this indicator reports OUT_OF_SERVICE, which keeps the instance out of the
+ * readiness group.
+ */
+@Component
+public class CacheWarmup implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmup.class);
+
+    enum State { PENDING, WARMING, COMPLETED, TIMED_OUT, FAILED, DISABLED }
+
+    private final QueryCache queryCache;
+    private final EmbeddingService embeddingService;
+    private final InferenceHistoryQueryService historyQueryService;
+    private final AtomicInteger warmed = new AtomicInteger();
+
+    private volatile State state = State.PENDING;
+    private volatile int total;
+
+    @Value("${rag.warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rag.warmup.warm-set-file:}")
+    private String warmSetFile;
+
+    @Value("${inference-history.enabled:true}")
+    private boolean historyEnabled;
+
+    @Value("${rag.warmup.top-queries:200}")
+    private int topQueries;
+
+    @Value("${rag.warmup.lookback-days:7}")
+    private int lookbackDays;
+
+    @Value("${rag.warmup.concurrency:4}")
+    private int concurrency;
+
+    @Value("${rag.warmup.timeout-seconds:60}")
+    private long timeoutSeconds;
+
+    public CacheWarmup(QueryCache queryCache, EmbeddingService embeddingService,
+                       InferenceHistoryQueryService historyQueryService) {
+        this.queryCache = queryCache;
+        this.embeddingService = embeddingService;
+        this.historyQueryService = historyQueryService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            state = State.DISABLED;
+            return;
+        }
+        state = State.WARMING;
+        Thread.ofVirtual().name("cache-warmup").start(this::warmUp);
+    }
+
+    private void warmUp() {
+        long startTime = System.currentTimeMillis();
+        try {
+            List<String> questions = loadQuestions();
+            total = questions.size();
+            logger.info("Warming question embeddings for {} questions (concurrency {}, timeout {}s)",
+                    questions.size(), concurrency, timeoutSeconds);
+
+            Semaphore permits = new Semaphore(concurrency);
+            List<Future<?>> tasks = new ArrayList<>(questions.size());
+            long deadlineNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            boolean timedOut = false;
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (String question : questions) {
+                    if (!permits.tryAcquire(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                        timedOut = true;
+                        break;
+                    }
+                    tasks.add(executor.submit(() -> {
+                        try {
+                            warm(question);
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                }
+                for (Future<?> task : tasks) {
+                    try {
+                        task.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    } catch (TimeoutException e) {
+                        timedOut = true;
+                        break;
+                    } catch (ExecutionException e) {
+                        logger.debug("Warm-up of one question failed: {}", e.getCause().getMessage());
+                    }
+                }
+                if (timedOut) {
+                    tasks.forEach(task -> task.cancel(true));
+                    executor.shutdownNow();
+                }
+            }
+
+            state = timedOut ? State.TIMED_OUT : State.COMPLETED;
+            logger.info("Cache warm-up {} after {}ms: {}/{} questions warmed",
+                    timedOut ? "timed out" : "completed", System.currentTimeMillis() - startTime, warmed.get(), total);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state = State.FAILED;
+        } catch (Exception e) {
+            // A cold cache is slower, not broken; never keep the instance out of rotation for it
+            logger.warn("Cache warm-up failed, serving with cold caches", e);
+            state = State.FAILED;
+        }
+    }
+
+    private void warm(String question) {
+        queryCache.embedding(question, embeddingService::generateEmbedding);
+        warmed.incrementAndGet();
+    }
+
+    private List<String> loadQuestions() throws IOException {
+        if (!warmSetFile.isBlank()) {
+            return Files.readAllLines(Path.of(warmSetFile), StandardCharsets.UTF_8).stream()
+                    .map(String::strip)
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .distinct()
+                    .limit(topQueries)
+                    .toList();
+        }
+        if (!historyEnabled) {
+            return List.of();
+        }
+        return historyQueryService.findHotQueries(topQueries, LocalDate.now().minusDays(lookbackDays));
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = switch (state) {
+            case PENDING, WARMING -> Health.outOfService();
+            default -> Health.up();
+        };
+        return builder
+                .withDetail("state", state)
+                .withDetail("warmed", warmed.get())
+                .withDetail("total", total)
+                .build();
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.ragpoc.model;
+
+/**
+ * Search hit projected to the fields callers use; the embedding is never fetched
+ */
+public record ChunkHit(String id, String content, String sourceFile, Integer chunkIndex, String headingPath,
+                       double score) {
+}
@@ -1,14 +1,22 @@
 package com.example.ragapi.service;
 
+import com.example.ragapi.metrics.PipelineMetrics;
+import com.example.ragapi.model.ConversationTurn;
+import com.example.ragapi.resilience.BedrockResilience;
 import com.example.ragapi.model.RetrievedDocument;
+import com.example.ragapi.model.TokenCounts;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.bedrock.BedrockAnthropicChatModel;
+import dev.langchain4j.model.input.Prompt;
+import dev.langchain4j.model.input.PromptTemplate;
+import dev.langchain4j.model.output.Response;
+import dev.langchain4j.model.output.TokenUsage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.ai.bedrock.anthropic.BedrockAnthropicChatModel;
-import org.springframework.ai.chat.model.ChatResponse;
-import org.springframework.ai.chat.prompt.Prompt;
-import org.springframework.ai.chat.prompt.PromptTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.IntStream;
@@ -19,6 +27,14 @@ public class ClaudeService {
     private static final Logger logger = LoggerFactory.getLogger(ClaudeService.class);
     
     private final BedrockAnthropicChatModel chatModel;
+    private final PipelineMetrics pipelineMetrics;
+    private final BedrockResilience bedrockResilience;
+    
+    @Value("${bedrock.claude.model:anthropic.claude-3-sonnet-20240229-v1:0}")
+    private String claudeModelId;
+    
+    @Value("${bedrock.claude.timeout-seconds:60}")
+    private long claudeTimeoutSeconds;
     
     private static final String RAG_PROMPT_TEMPLATE = """
         You are a helpful AI assistant. Answer the user's question based on the provided context documents.
@@ -26,38 +42,91 @@ public class ClaudeService {
         Be concise but comprehensive in your response.
         
         Context Documents:
-        {context}
+        {{context}}
+        
+        User Question: {{question}}
+        
+        Please provide a clear, accurate answer based on the context documents above:
+        """;
+    
+    private static final String CONVERSATION_PROMPT_TEMPLATE = """
+        You are a helpful AI assistant. Answer the user's question based on the provided context documents.
+        The question may follow up on the earlier conversation; use it to resolve what the user is referring to.
+        If the context doesn't contain enough information to answer the question, say so clearly.
+        Be concise but comprehensive in your response.
+        
+        Earlier Conversation:
+        {{history}}
+        
+        Context Documents:
+        {{context}}
         
-        User Question: {question}
+        User Question: {{question}}
         
         Please provide a clear, accurate answer based on the context documents above:
         """;
     
-    public ClaudeService(BedrockAnthropicChatModel chatModel) {
+    public ClaudeService(BedrockAnthropicChatModel chatModel, PipelineMetrics pipelineMetrics,
+                         BedrockResilience bedrockResilience) {
         this.chatModel = chatModel;
+        this.pipelineMetrics = pipelineMetrics;
+        this.bedrockResilience = bedrockResilience;
     }
     
     public String generateAnswer(String question, List<RetrievedDocument> retrievedDocs) {
+        return generateAnswer(question, retrievedDocs, List.of());
+    }
+    
+    /**
+     * Generate an answer that can refer back to earlier turns of the conversation
+     */
+    public String generateAnswer(String question, List<RetrievedDocument> retrievedDocs,
+                                 List<ConversationTurn> earlierTurns) {
+        return generateAnswer(question, retrievedDocs, earlierTurns, claudeModelId, chatModel).text();
+    }
+    
+    /**
+     * Generate an answer with the model tier chosen by {@link ModelRouter}, along with its token usage
+     */
+    public GeneratedAnswer generateAnswer(String question, List<RetrievedDocument> retrievedDocs,
+                                 List<ConversationTurn> earlierTurns, ModelRouter.Route route) {
+        return generateAnswer(question, retrievedDocs, earlierTurns, route.modelId(), route.chatModel());
+    }
+    
+    private GeneratedAnswer generateAnswer(String question, List<RetrievedDocument> retrievedDocs,
+                                  List<ConversationTurn> earlierTurns, String modelId,
+                                  BedrockAnthropicChatModel model) {
         try {
-            logger.debug("Generating answer for question with {} retrieved documents", 
-                    retrievedDocs.size());
+            logger.debug("Generating answer for question with {} retrieved documents and {} earlier turns", 
+                    retrievedDocs.size(), earlierTurns.size());
             
-            String context = buildContext(retrievedDocs);
+            String context = pipelineMetrics.time(PipelineMetrics.Stage.CONTEXT_BUILD, modelId,
+                    () -> buildContext(retrievedDocs));
             
-            PromptTemplate promptTemplate = new PromptTemplate(RAG_PROMPT_TEMPLATE);
-            Prompt prompt = promptTemplate.create(Map.of(
-                    "context", context,
-                    "question", question
-            ));
+            Prompt prompt;
+            if (earlierTurns.isEmpty()) {
+                prompt = PromptTemplate.from(RAG_PROMPT_TEMPLATE).apply(Map.of(
+                        "context", context,
+                        "question", question
+                ));
+            } else {
+                prompt = PromptTemplate.from(CONVERSATION_PROMPT_TEMPLATE).apply(Map.of(
+                        "history", buildHistory(earlierTurns),
+                        "context", context,
+                        "question", question
+                ));
+            }
             
-            logger.debug("Sending request to Claude model");
+            logger.debug("Sending request to Claude model {}", modelId);
             
-            ChatResponse response = chatModel.call(prompt);
+            Response<AiMessage> response = pipelineMetrics.time(PipelineMetrics.Stage.GENERATION, modelId,
+                    () -> bedrockResilience.call(modelId, Duration.ofSeconds(claudeTimeoutSeconds),
+                            () -> model.generate(prompt.toUserMessage())));
             
-            String answer = response.getResult().getOutput().getContent();
+            String answer = response.content().text();
             logger.debug("Generated answer of length: {}", answer.length());
             
-            return answer;
+            return new GeneratedAnswer(answer, tokenCounts(response.tokenUsage()));
             
         } catch (Exception e) {
             logger.error("Error generating answer with Claude", e);
@@ -65,7 +134,14 @@ public class ClaudeService {
         }
     }
     
-    private String buildContext(List<RetrievedDocument> retrievedDocs) {
+    private static TokenCounts tokenCounts(TokenUsage usage) {
+        if (usage == null) {
+            return null;
+        }
+        return new TokenCounts(usage.inputTokenCount(), usage.outputTokenCount(), usage.totalTokenCount());
+    }
+    
+    String buildContext(List<RetrievedDocument> retrievedDocs) {
         StringBuilder context = new StringBuilder();
         
         IntStream.range(0, retrievedDocs.size())
@@ -93,6 +169,15 @@ public class ClaudeService {
         return context.toString();
     }
     
+    private String buildHistory(List<ConversationTurn> earlierTurns) {
+        StringBuilder history = new StringBuilder();
+        for (ConversationTurn turn : earlierTurns) {
+            history.append("User: ").append(turn.question()).append("\n");
+            history.append("Assistant: ").append(turn.answer()).append("\n\n");
+        }
+        return history.toString();
+    }
+    
     public double calculateConfidence(List<RetrievedDocument> retrievedDocs) {
         if (retrievedDocs.isEmpty()) {
             return 0.0;
@@ -108,4 +193,9 @@ public class ClaudeService {
         // Normalize to 0-1 range (assuming cosine similarity scores)
         return Math.min(Math.max(avgScore, 0.0), 1.0);
     }
-}
\ No newline at end of file
+    
+    /**
+     * Answer text with the token usage Bedrock reported for it
+     */
+    public record GeneratedAnswer(String text, TokenCounts tokens) {}
+}
@@ -0,0 +1,129 @@
+package com.example.ragapi.service;
+
+import com.example.ragapi.model.ConversationTurn;
+import com.example.ragapi.model.HistoryEntry;
+import com.example.ragapi.model.InferenceContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Recent turns per conversation, held in a bounded in-process cache.
+ *
+ * Conversations are keyed by the calling client and user as well as the conversation ID,
+ * so a caller that presents someone else's conversation ID starts an empty conversation
+ * instead of reading their turns. Entries are weighed by the characters they hold and
+ * expire after a period without access. A miss reads through to the inference history
+ * table once; after that the conversation is served from memory and new turns are
+ * appended in place. Persisting the turn is left to {@link InferenceHistoryRecorder},
+ * which writes behind the request.
+ */
+@Service
+public class ConversationMemoryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationMemoryService.class);
+
+    private final InferenceHistoryQueryService historyQueryService;
+    private final Cache<Key, List<ConversationTurn>> turnsByConversation;
+    private final int maxTurns;
+
+    @Value("${conversation-memory.enabled:true}")
+    private boolean enabled;
+
+    public ConversationMemoryService(
+            InferenceHistoryQueryService historyQueryService,
+            MeterRegistry meterRegistry,
+            @Value("${conversation-memory.max-turns:6}") int maxTurns,
+            @Value("${conversation-memory.max-weight-chars:50000000}") long maxWeightChars,
+            @Value("${conversation-memory.expire-after-access-minutes:30}") long expireAfterAccessMinutes) {
+        this.historyQueryService = historyQueryService;
+        this.maxTurns = maxTurns;
+        this.turnsByConversation = Caffeine.newBuilder()
+                .maximumWeight(maxWeightChars)
+                .weigher((Key key, List<ConversationTurn> turns) -> weigh(key, turns))
+                .expireAfterAccess(Duration.ofMinutes(expireAfterAccessMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, turnsByConversation, "conversation-memory");
+    }
+
+    /**
+     * Earlier turns of the caller's conversation, oldest first; empty for a new or unknown conversation
+     */
+    public List<ConversationTurn> recentTurns(InferenceContext caller, String conversationId) {
+        if (!enabled || conversationId == null || conversationId.isBlank()) {
+            return List.of();
+        }
+        List<ConversationTurn> turns = turnsByConversation.get(Key.of(caller, conversationId), this::loadFromHistory);
+        return turns != null ? turns : List.of();
+    }
+
+    /**
+     * Add a completed turn to the cached conversation, keeping only the newest turns.
+     *
+     * Only a conversation already loaded is updated; if the history load failed there is no
+     * entry, and creating one here would hide the earlier turns until it is evicted. The next
+     * request then reads through to history again.
+     */
+    public void append(InferenceContext caller, String conversationId, String question, String answer) {
+        if (!enabled || conversationId == null || conversationId.isBlank()) {
+            return;
+        }
+        ConversationTurn turn = new ConversationTurn(question, answer);
+        turnsByConversation.asMap().computeIfPresent(Key.of(caller, conversationId), (key, turns) -> {
+            List<ConversationTurn> updated = new ArrayList<>(turns);
+            updated.add(turn);
+            int overflow = updated.size() - maxTurns;
+            return List.copyOf(overflow > 0 ? updated.subList(overflow, updated.size()) : updated);
+        });
+    }
+
+    private List<ConversationTurn> loadFromHistory(Key key) {
+        try {
+            List<HistoryEntry> newestFirst = historyQueryService
+                    .findConversation(key.clientName(), key.userId(), key.conversationId(), null, maxTurns, null)
+                    .items();
+
+            List<ConversationTurn> turns = new ArrayList<>(newestFirst.size());
+            for (int i = newestFirst.size() - 1; i >= 0; i--) {
+                HistoryEntry entry = newestFirst.get(i);
+                turns.add(new ConversationTurn(entry.userQuery(), entry.responseText()));
+            }
+            logger.debug("Loaded {} turns for conversation {} from history", turns.size(), key.conversationId());
+            return List.copyOf(turns);
+        } catch (Exception e) {
+            // Answering without memory beats failing the query; returning null caches nothing,
+            // so the next request for this conversation retries the load
+            logger.warn("Failed to load history for conversation {}: {}", key.conversationId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static int weigh(Key key, List<ConversationTurn> turns) {
+        long chars = key.conversationId().length();
+        for (ConversationTurn turn : turns) {
+            chars += (turn.question() != null ? turn.question().length() : 0)
+                    + (turn.answer() != null ? turn.answer().length() : 0);
+        }
+        return (int) Math.min(chars, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Conversation as seen by one client and user, matching how history rows are recorded
+     */
+    private record Key(String clientName, String userId, String conversationId) {
+
+        static Key of(InferenceContext caller, String conversationId) {
+            return new Key(caller.clientName(), caller.userId(), conversationId);
+        }
+    }
+}
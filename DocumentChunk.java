@@ -12,6 +12,7 @@ public class DocumentChunk {
     private String sourceFile;
     private int chunkIndex;
     private long timestamp;
+    private String headingPath;
 
     public DocumentChunk() {}
 
@@ -72,4 +73,12 @@ public class DocumentChunk {
     public void setTimestamp(long timestamp) {
         this.timestamp = timestamp;
     }
+
+    public String getHeadingPath() {
+        return headingPath;
+    }
+
+    public void setHeadingPath(String headingPath) {
+        this.headingPath = headingPath;
+    }
 }
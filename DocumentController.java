@@ -2,6 +2,9 @@ package com.example.ragapi.controller;
 
 import com.example.ragapi.model.*;
 import com.example.ragapi.service.DocumentService;
+import com.example.ragapi.service.StreamingIngestionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -9,6 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,10 +23,14 @@ public class DocumentController {
     
     private static final Logger logger = LoggerFactory.getLogger(DocumentController.class);
     
+    private static final String NDJSON = "application/x-ndjson";
+    
     private final DocumentService documentService;
+    private final StreamingIngestionService streamingIngestionService;
     
-    public DocumentController(DocumentService documentService) {
+    public DocumentController(DocumentService documentService, StreamingIngestionService streamingIngestionService) {
         this.documentService = documentService;
+        this.streamingIngestionService = streamingIngestionService;
     }
     
     /**
@@ -118,6 +126,25 @@ public class DocumentController {
         }
     }
     
+    /**
+     * Index an NDJSON stream of documents (one DocumentDto per line), streaming back one
+     * result line per document as it completes
+     */
+    @PostMapping(value = "/index/stream", consumes = NDJSON, produces = NDJSON)
+    public void indexDocumentsStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        logger.info("Received streaming index request");
+        
+        response.setStatus(HttpStatus.OK.value());
+        response.setContentType(NDJSON);
+        StreamingIngestionService.Summary summary =
+                streamingIngestionService.indexStream(request.getInputStream(), response.getOutputStream());
+        
+        if (summary.failed() > 0) {
+            logger.warn("Streamed {}/{} documents successfully in {}ms with {} errors",
+                       summary.successful(), summary.total(), summary.processingTimeMs(), summary.failed());
+        }
+    }
+    
     /**
      * Delete a single document
      */
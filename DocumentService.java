@@ -1,5 +1,6 @@
 package com.example.ragapi.service;
 
+import com.example.ragapi.metrics.PipelineMetrics;
 import com.example.ragapi.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,6 +18,7 @@ public class DocumentService {
     
     private final VectorSearchService vectorSearchService;
     private final TextChunkingService textChunkingService;
+    private final PipelineMetrics pipelineMetrics;
     
     @Value("${rag.processing.chunk-size:1000}")
     private int defaultChunkSize;
@@ -27,9 +29,11 @@ public class DocumentService {
     @Value("${rag.processing.max-chunks-per-document:50}")
     private int maxChunksPerDocument;
     
-    public DocumentService(VectorSearchService vectorSearchService, TextChunkingService textChunkingService) {
+    public DocumentService(VectorSearchService vectorSearchService, TextChunkingService textChunkingService,
+                           PipelineMetrics pipelineMetrics) {
         this.vectorSearchService = vectorSearchService;
         this.textChunkingService = textChunkingService;
+        this.pipelineMetrics = pipelineMetrics;
     }
     
     /**
@@ -50,7 +54,8 @@ public class DocumentService {
                 logger.debug("Document {} indexed as single chunk", documentId);
             } else {
                 // Large document - chunk and index
-                List<String> chunks = textChunkingService.chunkText(content, defaultChunkSize, defaultChunkOverlap);
+                List<String> chunks = pipelineMetrics.time(PipelineMetrics.Stage.CHUNKING, PipelineMetrics.NO_MODEL,
+                        () -> textChunkingService.chunkText(content, defaultChunkSize, defaultChunkOverlap));
                 
                 if (chunks.size() > maxChunksPerDocument) {
                     logger.warn("Document {} has {} chunks, truncating to {}", 
@@ -185,7 +190,7 @@ public class DocumentService {
     /**
      * Enrich metadata with standard fields
      */
-    private Map<String, Object> enrichMetadata(Map<String, Object> originalMetadata, String documentId) {
+    Map<String, Object> enrichMetadata(Map<String, Object> originalMetadata, String documentId) {
         Map<String, Object> enriched = originalMetadata != null ? 
                 new java.util.HashMap<>(originalMetadata) : new java.util.HashMap<>();
         
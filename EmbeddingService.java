@@ -1,12 +1,16 @@
 package com.example.ragapi.service;
 
+import com.example.ragapi.metrics.PipelineMetrics;
+import com.example.ragapi.resilience.BedrockResilience;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.model.bedrock.BedrockTitanEmbeddingModel;
 import dev.langchain4j.model.output.Response;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutorService;
@@ -19,9 +23,20 @@ public class EmbeddingService {
     
     private final BedrockTitanEmbeddingModel embeddingModel;
     private final ExecutorService executorService;
+    private final PipelineMetrics pipelineMetrics;
+    private final BedrockResilience bedrockResilience;
     
-    public EmbeddingService(BedrockTitanEmbeddingModel embeddingModel) {
+    @Value("${bedrock.embedding.model:amazon.titan-embed-text-v1}")
+    private String embeddingModelId;
+    
+    @Value("${bedrock.embedding.timeout-seconds:10}")
+    private long embeddingTimeoutSeconds;
+    
+    public EmbeddingService(BedrockTitanEmbeddingModel embeddingModel, PipelineMetrics pipelineMetrics,
+                            BedrockResilience bedrockResilience) {
         this.embeddingModel = embeddingModel;
+        this.pipelineMetrics = pipelineMetrics;
+        this.bedrockResilience = bedrockResilience;
         this.executorService = Executors.newVirtualThreadPerTaskExecutor();
     }
     
@@ -41,7 +56,9 @@ public class EmbeddingService {
             String processedText = preprocessText(text);
             
             // Generate embedding using LangChain4j
-            Response<Embedding> response = embeddingModel.embed(processedText);
+            Response<Embedding> response = pipelineMetrics.time(PipelineMetrics.Stage.EMBEDDING, embeddingModelId,
+                    () -> bedrockResilience.call(embeddingModelId, Duration.ofSeconds(embeddingTimeoutSeconds),
+                            () -> embeddingModel.embed(processedText)));
             
             if (response.content() == null) {
                 throw new RuntimeException("Failed to generate embedding - null response");
@@ -141,7 +158,7 @@ public class EmbeddingService {
     /**
      * Preprocess text before embedding generation
      */
-    private String preprocessText(String text) {
+    String preprocessText(String text) {
         // Titan has a limit of approximately 8192 tokens
         // Rough estimate: 1 token ≈ 4 characters
         final int MAX_CHARS = 30000; // Conservative estimate
@@ -0,0 +1,73 @@
+package com.example.ragapi.controller;
+
+import com.example.ragapi.model.*;
+import com.example.ragapi.service.FastPathAnswerService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/admin/fast-path")
+public class FastPathAdminController {
+
+    private static final Logger logger = LoggerFactory.getLogger(FastPathAdminController.class);
+
+    private final FastPathAnswerService fastPathAnswers;
+
+    public FastPathAdminController(FastPathAnswerService fastPathAnswers) {
+        this.fastPathAnswers = fastPathAnswers;
+    }
+
+    /**
+     * Bulk load and persist curated answers, upserting by ID or replacing the whole store
+     */
+    @PostMapping("/answers")
+    public ResponseEntity<?> load(@Valid @RequestBody FaqLoadRequest request) {
+        long startTime = System.currentTimeMillis();
+        try {
+            int loaded = fastPathAnswers.load(request.entries(), request.replace());
+            return ResponseEntity.ok(new FaqLoadResponse(
+                    loaded, fastPathAnswers.size(), System.currentTimeMillis() - startTime));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected fast-path load: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ErrorResponse.create(
+                    400, "Bad Request", e.getMessage(), "/api/v1/admin/fast-path/answers"));
+        } catch (Exception e) {
+            logger.error("Error loading fast-path answers", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ErrorResponse.create(
+                    500, "Internal Server Error", "Failed to load fast-path answers",
+                    "/api/v1/admin/fast-path/answers"));
+        }
+    }
+
+    /**
+     * Curated answers currently served
+     */
+    @GetMapping("/answers")
+    public ResponseEntity<List<FaqEntryDto>> list() {
+        return ResponseEntity.ok(fastPathAnswers.list());
+    }
+
+    /**
+     * Stop serving one curated answer
+     */
+    @DeleteMapping("/answers/{id}")
+    public ResponseEntity<Void> remove(@PathVariable String id) {
+        return fastPathAnswers.remove(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Remove every curated answer
+     */
+    @DeleteMapping("/answers")
+    public ResponseEntity<Void> clear() {
+        fastPathAnswers.clear();
+        logger.info("Cleared all fast-path answers");
+        return ResponseEntity.noContent().build();
+    }
+}
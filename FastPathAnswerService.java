@@ -0,0 +1,306 @@
+package com.example.ragapi.service;
+
+import com.example.ragapi.model.FaqEntryDto;
+import com.example.ragapi.model.QueryRequest;
+import com.example.ragapi.model.RetrievedDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Curated FAQ answers served without retrieval or generation.
+ *
+ * Question embeddings are normalized once at load time, so a lookup is a dot product per
+ * entry against the query embedding that retrieval needs anyway. The store is an
+ * immutable snapshot swapped on every load; readers never lock.
+ *
+ * Entries are persisted through {@link FastPathAnswerStore} before they are served, loaded
+ * on start, and reloaded whenever the stored set changes. Instances only see each other's
+ * admin calls when HISTORY_DATASOURCE_URL points them at the same PostgreSQL database; on
+ * the in-memory H2 default each instance has a private store that is lost on restart.
+ */
+@Service
+public class FastPathAnswerService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(FastPathAnswerService.class);
+
+    public static final String FAST_PATH_MODEL_ID = "fast-path";
+
+    private final EmbeddingService embeddingService;
+    private final FastPathAnswerStore store;
+    private final ScheduledExecutorService refresher =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("fast-path-refresh").factory());
+    private volatile Map<String, FaqEntry> entries = Map.of();
+    private volatile FastPathAnswerStore.Version loadedVersion;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer lookupTimer;
+    private final Timer answeredTimer;
+
+    @Value("${rag.fast-path.enabled:true}")
+    private boolean enabled;
+
+    @Value("${rag.fast-path.min-similarity:0.92}")
+    private double minSimilarity;
+
+    @Value("${rag.fast-path.refresh-seconds:60}")
+    private long refreshSeconds;
+
+    public FastPathAnswerService(EmbeddingService embeddingService, FastPathAnswerStore store,
+                                 MeterRegistry meterRegistry) {
+        this.embeddingService = embeddingService;
+        this.store = store;
+        this.hits = Counter.builder("rag.fastpath.lookups").tag("outcome", "hit")
+                .description("Queries answered from the curated FAQ store").register(meterRegistry);
+        this.misses = Counter.builder("rag.fastpath.lookups").tag("outcome", "miss").register(meterRegistry);
+        this.lookupTimer = Timer.builder("rag.fastpath.lookup")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.answeredTimer = Timer.builder("rag.fastpath.response")
+                .description("End-to-end time of queries answered from the FAQ store")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("rag.fastpath.entries", this, service -> service.entries.size()).register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        refresh();
+        if (refreshSeconds > 0) {
+            refresher.scheduleWithFixedDelay(this::refresh, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Reload the stored entries if they changed since the last load
+     */
+    void refresh() {
+        try {
+            FastPathAnswerStore.Version version = store.version();
+            if (version.equals(loadedVersion)) {
+                return;
+            }
+            synchronized (this) {
+                int dimension = embeddingService.getModelInfo().dimension();
+                Map<String, FaqEntry> loaded = new LinkedHashMap<>();
+                for (FaqEntry entry : store.findAll()) {
+                    if (entry.embedding().length != dimension) {
+                        logger.warn("Skipping fast-path answer {}: embedding has {} dimensions, expected {}",
+                                entry.id(), entry.embedding().length, dimension);
+                        continue;
+                    }
+                    loaded.put(entry.id(), entry);
+                }
+                entries = Map.copyOf(loaded);
+                loadedVersion = version;
+            }
+            logger.info("Loaded {} fast-path answers from the store", entries.size());
+        } catch (Exception e) {
+            // Keep serving the previous snapshot; the next refresh retries
+            logger.warn("Failed to load fast-path answers: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Best curated answer for the query, if one is similar enough and its filters match
+     */
+    public Optional<Match> findAnswer(QueryRequest request, List<Float> queryEmbedding) {
+        Map<String, FaqEntry> snapshot = entries;
+        if (!enabled || snapshot.isEmpty()) {
+            return Optional.empty();
+        }
+
+        long startNanos = System.nanoTime();
+        float[] query = normalize(queryEmbedding);
+        FaqEntry best = null;
+        double bestScore = minSimilarity;
+        for (FaqEntry entry : snapshot.values()) {
+            if (!entry.appliesTo(request)) {
+                continue;
+            }
+            double score = dot(query, entry.embedding());
+            if (score >= bestScore) {
+                best = entry;
+                bestScore = score;
+            }
+        }
+        lookupTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+
+        if (best == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        logger.debug("Fast-path match {} with similarity {}", best.id(), bestScore);
+        return Optional.of(new Match(best, bestScore));
+    }
+
+    /**
+     * Record the end-to-end time of a query the fast path answered
+     */
+    public void recordAnswered(long elapsedMs) {
+        answeredTimer.record(elapsedMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Load and persist curated answers, generating question embeddings that were not supplied
+     *
+     * @throws IllegalArgumentException if a supplied embedding does not match the model's dimension
+     */
+    public int load(List<FaqEntryDto> dtos, boolean replace) {
+        int dimension = embeddingService.getModelInfo().dimension();
+        for (FaqEntryDto dto : dtos) {
+            if (dto.embedding() != null && !dto.embedding().isEmpty() && dto.embedding().size() != dimension) {
+                throw new IllegalArgumentException("Embedding for question '" + dto.question() + "' has "
+                        + dto.embedding().size() + " dimensions, expected " + dimension);
+            }
+        }
+
+        List<String> toEmbed = dtos.stream()
+                .filter(dto -> dto.embedding() == null || dto.embedding().isEmpty())
+                .map(FaqEntryDto::question)
+                .toList();
+        List<List<Float>> generated = toEmbed.isEmpty() ? List.of() : embeddingService.generateEmbeddings(toEmbed);
+
+        List<FaqEntry> loaded = new ArrayList<>(dtos.size());
+        int generatedIndex = 0;
+        for (FaqEntryDto dto : dtos) {
+            List<Float> embedding = dto.embedding() != null && !dto.embedding().isEmpty()
+                    ? dto.embedding() : generated.get(generatedIndex++);
+            loaded.add(new FaqEntry(
+                    dto.id() != null ? dto.id() : UUID.randomUUID().toString(),
+                    dto.question(),
+                    dto.answer(),
+                    dto.coveragePackageCodes() != null ? Set.copyOf(dto.coveragePackageCodes()) : Set.of(),
+                    dto.stateCodes() != null ? Set.copyOf(dto.stateCodes()) : Set.of(),
+                    normalize(embedding)));
+        }
+
+        synchronized (this) {
+            store.save(loaded, replace);
+            Map<String, FaqEntry> updated = new LinkedHashMap<>(replace ? Map.of() : entries);
+            loaded.forEach(entry -> updated.put(entry.id(), entry));
+            entries = Map.copyOf(updated);
+        }
+        logger.info("Loaded {} fast-path answers ({} generated embeddings), store now holds {}",
+                loaded.size(), toEmbed.size(), entries.size());
+        return loaded.size();
+    }
+
+    /**
+     * Current entries without their embeddings
+     */
+    public List<FaqEntryDto> list() {
+        return entries.values().stream()
+                .map(entry -> new FaqEntryDto(entry.id(), entry.question(), entry.answer(),
+                        List.copyOf(entry.coveragePackageCodes()), List.copyOf(entry.stateCodes()), null))
+                .toList();
+    }
+
+    public synchronized boolean remove(String id) {
+        if (!store.delete(id) && !entries.containsKey(id)) {
+            return false;
+        }
+        Map<String, FaqEntry> updated = new LinkedHashMap<>(entries);
+        updated.remove(id);
+        entries = Map.copyOf(updated);
+        return true;
+    }
+
+    public synchronized void clear() {
+        store.deleteAll();
+        entries = Map.of();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private static float[] normalize(List<Float> vector) {
+        float[] result = new float[vector.size()];
+        double norm = 0.0;
+        for (int i = 0; i < result.length; i++) {
+            result[i] = vector.get(i);
+            norm += result[i] * result[i];
+        }
+        if (norm > 0) {
+            float scale = (float) (1.0 / Math.sqrt(norm));
+            for (int i = 0; i < result.length; i++) {
+                result[i] *= scale;
+            }
+        }
+        return result;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0.0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public void destroy() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Curated entry with its unit-length question embedding
+     */
+    public record FaqEntry(String id, String question, String answer,
+                           Set<String> coveragePackageCodes, Set<String> stateCodes, float[] embedding) {
+
+        boolean appliesTo(QueryRequest request) {
+            if (!stateCodes.isEmpty() && (request.stateCode() == null || !stateCodes.contains(request.stateCode()))) {
+                return false;
+            }
+            if (coveragePackageCodes.isEmpty()) {
+                return true;
+            }
+            return request.coveragePackageCodes() != null
+                    && request.coveragePackageCodes().stream().anyMatch(coveragePackageCodes::contains);
+        }
+    }
+
+    /**
+     * Matched entry and its similarity to the query
+     */
+    public record Match(FaqEntry entry, double similarity) {
+
+        public String answer() {
+            return entry.answer();
+        }
+
+        /**
+         * The curated entry as a source, so callers can see where the answer came from
+         */
+        public RetrievedDocument asSource() {
+            return new RetrievedDocument(entry.id(), entry.question(), similarity,
+                    Map.of("source", "fast-path", "title", entry.question()));
+        }
+    }
+}
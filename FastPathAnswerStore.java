@@ -0,0 +1,141 @@
+package com.example.ragapi.service;
+
+import com.example.ragapi.service.FastPathAnswerService.FaqEntry;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Durable copy of the curated fast-path answers, kept in the inference history database.
+ *
+ * Every instance serves from memory but loads from here. With HISTORY_DATASOURCE_URL on a
+ * shared PostgreSQL database, a bulk load or delete made through any instance survives
+ * restarts and reaches the others on their next refresh; the in-memory H2 default does neither.
+ * Embeddings are stored already normalized as little-endian float32 bytes.
+ */
+@Repository
+public class FastPathAnswerStore {
+
+    private static final String UPSERT_SQL = """
+        MERGE INTO benefits_assist_fast_path_answer (
+            id, question, answer, coverage_package_codes, state_codes, embedding, updated_at
+        ) KEY (id) VALUES (?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private static final String UPSERT_SQL_POSTGRES = """
+        INSERT INTO benefits_assist_fast_path_answer (
+            id, question, answer, coverage_package_codes, state_codes, embedding, updated_at
+        ) VALUES (?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (id) DO UPDATE SET
+            question = EXCLUDED.question, answer = EXCLUDED.answer,
+            coverage_package_codes = EXCLUDED.coverage_package_codes, state_codes = EXCLUDED.state_codes,
+            embedding = EXCLUDED.embedding, updated_at = EXCLUDED.updated_at
+        """;
+
+    private static final RowMapper<FaqEntry> ROW_MAPPER = (rs, rowNum) -> new FaqEntry(
+            rs.getString("id"),
+            rs.getString("question"),
+            rs.getString("answer"),
+            split(rs.getString("coverage_package_codes")),
+            split(rs.getString("state_codes")),
+            toFloats(rs.getBytes("embedding")));
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile String upsertSql;
+
+    public FastPathAnswerStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<FaqEntry> findAll() {
+        return jdbcTemplate.query("""
+                SELECT id, question, answer, coverage_package_codes, state_codes, embedding
+                FROM benefits_assist_fast_path_answer
+                ORDER BY updated_at, id
+                """, ROW_MAPPER);
+    }
+
+    /**
+     * Row count and latest change, cheap enough to poll before deciding to reload
+     */
+    public Version version() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*), MAX(updated_at) FROM benefits_assist_fast_path_answer",
+                (rs, rowNum) -> new Version(rs.getLong(1), rs.getTimestamp(2)));
+    }
+
+    /**
+     * Insert or update the given entries, optionally removing every other entry first
+     */
+    @Transactional
+    public void save(Collection<FaqEntry> entries, boolean replace) {
+        if (replace) {
+            jdbcTemplate.update("DELETE FROM benefits_assist_fast_path_answer");
+        }
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(upsertSql(), entries.stream()
+                .map(entry -> new Object[] {
+                        entry.id(), entry.question(), entry.answer(),
+                        String.join(",", entry.coveragePackageCodes()), String.join(",", entry.stateCodes()),
+                        toBytes(entry.embedding()), now})
+                .toList());
+    }
+
+    public boolean delete(String id) {
+        return jdbcTemplate.update("DELETE FROM benefits_assist_fast_path_answer WHERE id = ?", id) > 0;
+    }
+
+    public void deleteAll() {
+        jdbcTemplate.update("DELETE FROM benefits_assist_fast_path_answer");
+    }
+
+    private String upsertSql() {
+        String sql = upsertSql;
+        if (sql == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>)
+                    connection -> connection.getMetaData().getDatabaseProductName());
+            sql = "PostgreSQL".equalsIgnoreCase(product) ? UPSERT_SQL_POSTGRES : UPSERT_SQL;
+            upsertSql = sql;
+        }
+        return sql;
+    }
+
+    private static Set<String> split(String joined) {
+        if (joined == null || joined.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(joined.split(","))
+                .map(String::trim)
+                .filter(code -> !code.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static byte[] toBytes(float[] vector) {
+        ByteBuffer buffer = ByteBuffer.allocate(vector.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(vector);
+        return buffer.array();
+    }
+
+    private static float[] toFloats(byte[] bytes) {
+        float[] vector = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(vector);
+        return vector;
+    }
+
+    /**
+     * Row count and latest update time of the stored answers
+     */
+    public record Version(long count, Timestamp lastUpdated) {}
+}
@@ -0,0 +1,293 @@
+package com.example.ragapi.service;
+
+import com.example.ragapi.config.HttpTransportFactory;
+import com.example.ragapi.metrics.PipelineContext;
+import com.example.ragapi.resilience.CircuitBreaker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.HealthStatus;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.search.Hit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Scatter-gather vector search across several OpenSearch clusters.
+ *
+ * Clusters are listed as {@code name=https://host:9200;group=us;weight=2;timeout-ms=800}.
+ * Clusters in the same group are replicas of one corpus: each query goes to one healthy
+ * replica per group, picked by weight. Distinct groups hold different parts of the corpus
+ * and are all queried concurrently; each search has its own deadline and slow or failed
+ * clusters are left out of the merged top-k instead of failing the request.
+ *
+ * A cluster is ejected while its circuit breaker is open (failures and timeouts on live
+ * traffic) or while its last health check reported red.
+ */
+@Service
+public class FederatedSearchService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(FederatedSearchService.class);
+
+    private final List<Cluster> clusters = new ArrayList<>();
+    private final Map<String, List<Cluster>> groups = new LinkedHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Executor requestExecutor = PipelineContext.propagating(executor);
+    private final ScheduledExecutorService healthChecks =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("federation-health").factory());
+    private final Counter partialResults;
+    private final boolean maxNormalization;
+
+    public FederatedSearchService(
+            HttpTransportFactory httpTransportFactory,
+            MeterRegistry meterRegistry,
+            @Value("${opensearch.federation.enabled:false}") boolean enabled,
+            @Value("${opensearch.federation.clusters:}") List<String> clusterSpecs,
+            @Value("${opensearch.username:}") String username,
+            @Value("${opensearch.password:}") String password,
+            @Value("${opensearch.federation.timeout-ms:1000}") long defaultTimeoutMs,
+            @Value("${opensearch.federation.score-normalization:none}") String scoreNormalization,
+            @Value("${opensearch.federation.circuit.window-size:20}") int circuitWindowSize,
+            @Value("${opensearch.federation.circuit.failure-rate-threshold:0.5}") double circuitFailureRate,
+            @Value("${opensearch.federation.circuit.open-ms:10000}") long circuitOpenMs,
+            @Value("${opensearch.federation.health-check-interval-ms:10000}") long healthCheckIntervalMs) {
+        this.partialResults = Counter.builder("opensearch.federation.partial")
+                .description("Federated searches answered without every cluster group")
+                .register(meterRegistry);
+        this.maxNormalization = "max".equalsIgnoreCase(scoreNormalization);
+
+        if (!enabled) {
+            return;
+        }
+        for (String spec : clusterSpecs) {
+            if (spec.isBlank()) {
+                continue;
+            }
+            ClusterSpec parsed = ClusterSpec.parse(spec, defaultTimeoutMs);
+            Cluster cluster = new Cluster(parsed,
+                    httpTransportFactory.openSearchClient("opensearch-" + parsed.name(), parsed.endpoint(), username, password),
+                    new CircuitBreaker(circuitWindowSize, circuitFailureRate, circuitOpenMs),
+                    meterRegistry);
+            clusters.add(cluster);
+            groups.computeIfAbsent(parsed.group(), group -> new ArrayList<>()).add(cluster);
+        }
+        if (clusters.isEmpty()) {
+            throw new IllegalStateException("opensearch.federation.enabled is set but no clusters are configured");
+        }
+        healthChecks.scheduleWithFixedDelay(this::checkHealth, 0, healthCheckIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Federated search across {} clusters in {} groups (score normalization: {})",
+                clusters.size(), groups.size(), maxNormalization ? "max" : "none");
+    }
+
+    public boolean enabled() {
+        return !clusters.isEmpty();
+    }
+
+    /**
+     * Search one replica of every group and merge the hits, best first; hits are not deduplicated
+     *
+     * @throws RuntimeException if no group answered in time
+     */
+    public <T> List<Hit<T>> search(SearchRequest request, Class<T> sourceClass, int size) {
+        Map<Cluster, CompletableFuture<List<Hit<T>>>> searches = new LinkedHashMap<>();
+        for (List<Cluster> replicas : groups.values()) {
+            Cluster cluster = pickReplica(replicas);
+            if (cluster != null) {
+                searches.put(cluster, CompletableFuture.supplyAsync(() -> cluster.search(request, sourceClass), requestExecutor));
+            }
+        }
+
+        long startNanos = System.nanoTime();
+        List<RankedHit<T>> merged = new ArrayList<>();
+        int answered = 0;
+        for (Map.Entry<Cluster, CompletableFuture<List<Hit<T>>>> search : searches.entrySet()) {
+            Cluster cluster = search.getKey();
+            long remainingNanos = TimeUnit.MILLISECONDS.toNanos(cluster.spec.timeoutMs()) - (System.nanoTime() - startNanos);
+            try {
+                List<Hit<T>> hits = search.getValue().get(Math.max(0, remainingNanos), TimeUnit.NANOSECONDS);
+                cluster.breaker.onSuccess();
+                merged.addAll(rank(hits));
+                answered++;
+            } catch (TimeoutException e) {
+                search.getValue().cancel(true);
+                cluster.breaker.onFailure();
+                logger.warn("OpenSearch cluster {} did not answer within {}ms", cluster.spec.name(), cluster.spec.timeoutMs());
+            } catch (ExecutionException e) {
+                cluster.breaker.onFailure();
+                logger.warn("OpenSearch cluster {} failed: {}", cluster.spec.name(), e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted during federated search", e);
+            }
+        }
+
+        if (answered == 0) {
+            throw new RuntimeException("Failed to search any OpenSearch cluster");
+        }
+        if (answered < groups.size()) {
+            partialResults.increment();
+        }
+        return merged.stream()
+                .sorted(Comparator.comparingDouble((RankedHit<T> ranked) -> ranked.mergeScore()).reversed())
+                .limit(size)
+                .map(RankedHit::hit)
+                .collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    /**
+     * Healthy replica picked with probability proportional to its weight, or null when all are ejected
+     */
+    private Cluster pickReplica(List<Cluster> replicas) {
+        // Weighted random order (key u^(1/w)); the first replica whose breaker admits the call wins
+        Map<Cluster, Double> keys = new LinkedHashMap<>();
+        for (Cluster replica : replicas) {
+            if (replica.healthy) {
+                keys.put(replica, Math.pow(ThreadLocalRandom.current().nextDouble(), 1.0 / replica.spec.weight()));
+            }
+        }
+        return keys.entrySet().stream()
+                .sorted(Map.Entry.<Cluster, Double>comparingByValue().reversed())
+                .map(Map.Entry::getKey)
+                .filter(replica -> replica.breaker.tryAcquire())
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Pair each hit with the score it is merged by: its own score, or its score divided by the
+     * cluster's best when max normalization is on. Hits keep their raw scores, which thresholds,
+     * confidence and routing read as cosine similarity; weights only steer replica selection.
+     */
+    private <T> List<RankedHit<T>> rank(List<Hit<T>> hits) {
+        double max = maxNormalization
+                ? hits.stream().mapToDouble(hit -> hit.score() != null ? hit.score() : 0.0).max().orElse(1.0)
+                : 1.0;
+        double divisor = max > 0 ? max : 1.0;
+        List<RankedHit<T>> ranked = new ArrayList<>(hits.size());
+        for (Hit<T> hit : hits) {
+            ranked.add(new RankedHit<>(hit, hit.score() != null ? hit.score() / divisor : 0.0));
+        }
+        return ranked;
+    }
+
+    private void checkHealth() {
+        for (Cluster cluster : clusters) {
+            boolean healthy;
+            try {
+                healthy = cluster.client.cluster().health().status() != HealthStatus.Red;
+            } catch (Exception e) {
+                healthy = false;
+            }
+            if (healthy != cluster.healthy) {
+                logger.warn("OpenSearch cluster {} is now {}", cluster.spec.name(), healthy ? "healthy" : "ejected");
+            }
+            cluster.healthy = healthy;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        healthChecks.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Hit with the score it is ordered by in the merged result
+     */
+    private record RankedHit<T>(Hit<T> hit, double mergeScore) {}
+
+    /**
+     * One configured cluster endpoint
+     */
+    record ClusterSpec(
+            String name,
+            URI endpoint,
+            String group,
+            double weight,
+            long timeoutMs
+    ) {
+        static ClusterSpec parse(String spec, long defaultTimeoutMs) {
+            String[] parts = spec.trim().split(";");
+            String[] nameAndEndpoint = parts[0].split("=", 2);
+            if (nameAndEndpoint.length != 2) {
+                throw new IllegalArgumentException("Cluster must be given as name=endpoint: " + spec);
+            }
+            String name = nameAndEndpoint[0].trim();
+            String group = name;
+            double weight = 1.0;
+            long timeoutMs = defaultTimeoutMs;
+            for (int i = 1; i < parts.length; i++) {
+                String[] option = parts[i].split("=", 2);
+                String value = option.length == 2 ? option[1].trim() : "";
+                switch (option[0].trim()) {
+                    case "group" -> group = value;
+                    case "weight" -> weight = Double.parseDouble(value);
+                    case "timeout-ms" -> timeoutMs = Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Unknown cluster option '" + option[0] + "' in " + spec);
+                }
+            }
+            return new ClusterSpec(name, URI.create(nameAndEndpoint[1].trim()), group, weight, timeoutMs);
+        }
+    }
+
+    /**
+     * Client, breaker and meters of one cluster
+     */
+    private static final class Cluster {
+
+        private final ClusterSpec spec;
+        private final OpenSearchClient client;
+        private final CircuitBreaker breaker;
+        private final Timer latency;
+        private volatile boolean healthy = true;
+
+        private Cluster(ClusterSpec spec, OpenSearchClient client, CircuitBreaker breaker, MeterRegistry registry) {
+            this.spec = spec;
+            this.client = client;
+            this.breaker = breaker;
+            this.latency = Timer.builder("opensearch.federation.search")
+                    .tag("cluster", spec.name())
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry);
+
+            Gauge.builder("opensearch.federation.circuit.state", breaker, b -> b.state().gaugeValue())
+                    .description("0 = closed, 1 = half-open, 2 = open")
+                    .tag("cluster", spec.name()).register(registry);
+            Gauge.builder("opensearch.federation.healthy", this, cluster -> cluster.healthy ? 1 : 0)
+                    .tag("cluster", spec.name()).register(registry);
+        }
+
+        private <T> List<Hit<T>> search(SearchRequest request, Class<T> sourceClass) {
+            long start = System.nanoTime();
+            try {
+                return client.search(request, sourceClass).hits().hits();
+            } catch (Exception e) {
+                throw new RuntimeException("Failed to search OpenSearch cluster " + spec.name(), e);
+            } finally {
+                latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.ragapi.config;
+
+import com.example.common.http.PooledOpenSearchTransport;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.metrics.MetricRecord;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single place where outbound HTTP connection pools are created.
+ *
+ * Every OpenSearch client and the Bedrock runtime client are built from here so that
+ * they share the same pool sizing, keep-alive and TLS settings, and so that every pool
+ * reports leased / pending / available connections under {@code http.client.pool.*}
+ * tagged with the pool name. OpenSearch pools also report connect time
+ * ({@code http.client.pool.connect}), the Bedrock pool its acquire time
+ * ({@code http.client.pool.acquire}).
+ */
+@Component
+public class HttpTransportFactory implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpTransportFactory.class);
+
+    private final MeterRegistry meterRegistry;
+    private final List<AutoCloseable> managedResources = new CopyOnWriteArrayList<>();
+
+    @Value("${http.transport.max-connections-total:200}")
+    private int maxConnectionsTotal;
+
+    @Value("${http.transport.max-connections-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${http.transport.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${http.transport.socket-timeout-ms:30000}")
+    private long socketTimeoutMs;
+
+    @Value("${http.transport.acquire-timeout-ms:1000}")
+    private long acquireTimeoutMs;
+
+    @Value("${http.transport.connection-ttl-seconds:300}")
+    private long connectionTtlSeconds;
+
+    @Value("${http.transport.keep-alive-seconds:60}")
+    private long keepAliveSeconds;
+
+    @Value("${http.transport.validate-after-inactivity-ms:2000}")
+    private long validateAfterInactivityMs;
+
+    @Value("${http.transport.http2-enabled:true}")
+    private boolean http2Enabled;
+
+    @Value("${http.transport.compression-enabled:true}")
+    private boolean compressionEnabled;
+
+    @Value("${http.transport.bedrock.max-connections:100}")
+    private int bedrockMaxConnections;
+
+    public HttpTransportFactory(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Create an OpenSearch client backed by its own instrumented connection pool
+     */
+    public OpenSearchClient openSearchClient(String poolName, URI endpoint, String username, String password) {
+        OpenSearchTransport transport = PooledOpenSearchTransport.create(poolName, endpoint, username, password,
+                new PooledOpenSearchTransport.Settings(maxConnectionsTotal, maxConnectionsPerRoute, connectTimeoutMs,
+                        socketTimeoutMs, connectionTtlSeconds, keepAliveSeconds, validateAfterInactivityMs,
+                        http2Enabled, compressionEnabled),
+                meterRegistry);
+        managedResources.add(transport);
+        return new OpenSearchClient(transport);
+    }
+
+    /**
+     * Create the shared Bedrock HTTP client.
+     *
+     * The synchronous Bedrock runtime API is HTTP/1.1 only, so reuse comes from a large
+     * keep-alive pool rather than from HTTP/2 multiplexing.
+     */
+    public SdkHttpClient bedrockHttpClient() {
+        logger.info("Creating pooled Bedrock HTTP client (maxConnections={})", bedrockMaxConnections);
+
+        SdkHttpClient httpClient = ApacheHttpClient.builder()
+                .maxConnections(bedrockMaxConnections)
+                .connectionTimeout(Duration.ofMillis(connectTimeoutMs))
+                .socketTimeout(Duration.ofMillis(socketTimeoutMs))
+                .connectionAcquisitionTimeout(Duration.ofMillis(acquireTimeoutMs))
+                .connectionTimeToLive(Duration.ofSeconds(connectionTtlSeconds))
+                .connectionMaxIdleTime(Duration.ofSeconds(keepAliveSeconds))
+                .useIdleConnectionReaper(true)
+                .tcpKeepAlive(true)
+                .build();
+        managedResources.add(httpClient);
+        return httpClient;
+    }
+
+    /**
+     * Override configuration that publishes SDK connection pool metrics for the given pool
+     */
+    public ClientOverrideConfiguration bedrockOverrideConfiguration(String poolName) {
+        return ClientOverrideConfiguration.builder()
+                .addMetricPublisher(new PoolMetricPublisher(poolName, meterRegistry))
+                .build();
+    }
+
+    @Override
+    public void destroy() {
+        for (AutoCloseable resource : managedResources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                logger.warn("Failed to close HTTP transport resource", e);
+            }
+        }
+        managedResources.clear();
+    }
+
+    /**
+     * Bridges AWS SDK HTTP pool metrics into Micrometer
+     */
+    static class PoolMetricPublisher implements MetricPublisher {
+
+        private final AtomicLong leased = new AtomicLong();
+        private final AtomicLong pending = new AtomicLong();
+        private final AtomicLong available = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+        private final Timer acquireTimer;
+
+        PoolMetricPublisher(String poolName, MeterRegistry meterRegistry) {
+            Gauge.builder("http.client.pool.leased", leased, AtomicLong::get).tag("pool", poolName).register(meterRegistry);
+            Gauge.builder("http.client.pool.pending", pending, AtomicLong::get).tag("pool", poolName).register(meterRegistry);
+            Gauge.builder("http.client.pool.available", available, AtomicLong::get).tag("pool", poolName).register(meterRegistry);
+            Gauge.builder("http.client.pool.max", max, AtomicLong::get).tag("pool", poolName).register(meterRegistry);
+            this.acquireTimer = Timer.builder("http.client.pool.acquire")
+                    .description("Time to acquire a pooled connection, including connect and TLS handshake when the pool is cold")
+                    .tag("pool", poolName)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+        }
+
+        @Override
+        public void publish(MetricCollection metricCollection) {
+            record(metricCollection);
+        }
+
+        private void record(MetricCollection collection) {
+            for (MetricRecord<?> metric : collection) {
+                if (metric.metric() == HttpMetric.LEASED_CONCURRENCY) {
+                    leased.set(((Number) metric.value()).longValue());
+                } else if (metric.metric() == HttpMetric.PENDING_CONCURRENCY_ACQUIRES) {
+                    pending.set(((Number) metric.value()).longValue());
+                } else if (metric.metric() == HttpMetric.AVAILABLE_CONCURRENCY) {
+                    available.set(((Number) metric.value()).longValue());
+                } else if (metric.metric() == HttpMetric.MAX_CONCURRENCY) {
+                    max.set(((Number) metric.value()).longValue());
+                } else if (metric.metric() == HttpMetric.CONCURRENCY_ACQUIRE_DURATION) {
+                    acquireTimer.record((Duration) metric.value());
+                }
+            }
+            collection.children().forEach(this::record);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
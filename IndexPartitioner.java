@@ -0,0 +1,161 @@
+package com.example.ragapi.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps coverage packages to the OpenSearch indices that hold their chunks.
+ *
+ * With the {@code package} strategy every coverage package gets its own index
+ * ({@code documents-pkg-ppo-gold}); with {@code hashed} packages share a fixed number of
+ * group indices ({@code documents-g07}) and searches also filter on the package code.
+ * A chunk for several packages is stored once per package, each copy carrying that single
+ * code, so the exact-match package filter also finds multi-package chunks. Chunks without
+ * a package go to a shared index that every query searches, and a request that names no
+ * package searches only that shared index. When partitioning is disabled everything stays
+ * in the single base index.
+ */
+@Service
+public class IndexPartitioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexPartitioner.class);
+
+    public static final String PACKAGE_KEY = "coverage_package_code";
+    public static final String ALL_PACKAGES_KEY = "coverage_package_codes";
+    public static final String STATE_KEY = "state_code";
+
+    private final String baseIndex;
+    private final boolean enabled;
+    private final boolean hashed;
+    private final int hashedGroups;
+
+    public IndexPartitioner(
+            @Value("${opensearch.index.name:documents}") String baseIndex,
+            @Value("${rag.partitioning.enabled:false}") boolean enabled,
+            @Value("${rag.partitioning.strategy:package}") String strategy,
+            @Value("${rag.partitioning.hashed-groups:16}") int hashedGroups) {
+        this.baseIndex = baseIndex;
+        this.enabled = enabled;
+        this.hashed = "hashed".equalsIgnoreCase(strategy);
+        this.hashedGroups = hashedGroups;
+        if (enabled) {
+            logger.info("Index partitioning enabled: strategy={}, base index={}{}", hashed ? "hashed" : "package",
+                    baseIndex, hashed ? ", groups=" + hashedGroups : "");
+        }
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether searches must also filter on the package code because partitions hold several packages
+     */
+    public boolean sharesPartitions() {
+        return enabled && hashed;
+    }
+
+    /**
+     * Copies a chunk is written as: one per package, in that package's partition, or a single
+     * copy in the shared index when the chunk names no package
+     */
+    public List<WriteTarget> writeTargets(Map<String, Object> metadata) {
+        if (!enabled) {
+            return List.of(new WriteTarget(baseIndex, null));
+        }
+        List<String> codes = packageCodes(metadata != null ? metadata.get(PACKAGE_KEY) : null);
+        if (codes.isEmpty()) {
+            return List.of(new WriteTarget(sharedIndex(), null));
+        }
+        return codes.stream().map(code -> new WriteTarget(partitionFor(code), code)).toList();
+    }
+
+    /**
+     * Indices a request is entitled to search: its package partitions plus the shared index.
+     * A request that names no package is entitled to the shared index only.
+     */
+    public List<String> searchIndices(Collection<String> coveragePackageCodes) {
+        if (!enabled) {
+            return List.of(baseIndex);
+        }
+        if (coveragePackageCodes == null || coveragePackageCodes.stream().allMatch(code -> code == null || code.isBlank())) {
+            return List.of(sharedIndex());
+        }
+        Set<String> indices = new LinkedHashSet<>();
+        coveragePackageCodes.stream().filter(code -> code != null && !code.isBlank()).map(this::partitionFor)
+                .forEach(indices::add);
+        indices.add(sharedIndex());
+        return new ArrayList<>(indices);
+    }
+
+    /**
+     * Every index that may hold chunks, for maintenance operations such as deletes
+     */
+    public String allIndices() {
+        return enabled ? baseIndex + "-*" : baseIndex;
+    }
+
+    private String partitionFor(String packageCode) {
+        if (hashed) {
+            int group = Math.floorMod(normalize(packageCode).hashCode(), hashedGroups);
+            return String.format("%s-g%02d", baseIndex, group);
+        }
+        return baseIndex + "-pkg-" + normalize(packageCode);
+    }
+
+    private String sharedIndex() {
+        return baseIndex + "-shared";
+    }
+
+    /**
+     * Index names must be lower case and free of characters OpenSearch reserves
+     */
+    private static String normalize(String packageCode) {
+        return packageCode.trim().toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_-]+", "-");
+    }
+
+    static List<String> packageCodes(Object value) {
+        if (value == null) {
+            return List.of();
+        }
+        Collection<?> raw = value instanceof Collection<?> collection
+                ? collection : Arrays.asList(value.toString().split(","));
+        return raw.stream()
+                .filter(code -> code != null && !code.toString().isBlank())
+                .map(code -> code.toString().trim())
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * One stored copy of a chunk: the index it goes to and the single package code it carries
+     * (null for the shared or base index, where the chunk's metadata is stored unchanged)
+     */
+    public record WriteTarget(String index, String packageCode) {
+
+        /**
+         * The chunk's metadata for this copy; the full package list is kept under {@link IndexPartitioner#ALL_PACKAGES_KEY}
+         */
+        public Map<String, Object> metadataFor(Map<String, Object> metadata) {
+            if (packageCode == null || metadata == null) {
+                return metadata;
+            }
+            Map<String, Object> copy = new LinkedHashMap<>(metadata);
+            copy.put(ALL_PACKAGES_KEY, String.join(",", packageCodes(metadata.get(PACKAGE_KEY))));
+            copy.put(PACKAGE_KEY, packageCode);
+            return copy;
+        }
+    }
+}
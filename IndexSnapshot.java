@@ -0,0 +1,413 @@
+package com.example.ragapi.snapshot;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.json.stream.JsonGenerator;
+import org.apache.hc.client5.http.auth.AuthScope;
+import org.apache.hc.client5.http.auth.UsernamePasswordCredentials;
+import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
+import org.apache.hc.core5.http.HttpHost;
+import org.opensearch.client.json.JsonpMapper;
+import org.opensearch.client.json.jackson.JacksonJsonpMapper;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.SortOrder;
+import org.opensearch.client.opensearch._types.mapping.TypeMapping;
+import org.opensearch.client.opensearch.core.BulkResponse;
+import org.opensearch.client.opensearch.core.SearchResponse;
+import org.opensearch.client.opensearch.core.bulk.BulkOperation;
+import org.opensearch.client.opensearch.core.bulk.BulkResponseItem;
+import org.opensearch.client.opensearch.core.search.Hit;
+import org.opensearch.client.opensearch.indices.IndexSettings;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+
+/**
+ * Exports the vector index to a snapshot directory and loads it back, so a new
+ * environment does not have to re-ingest and re-embed every document.
+ * <pre>
+ *   java -cp target/rag-api-langchain4j-1.0.0-aws.jar com.example.ragapi.snapshot.IndexSnapshot export documents snapshots/prod
+ *   java -cp target/rag-api-langchain4j-1.0.0-aws.jar com.example.ragapi.snapshot.IndexSnapshot import snapshots/prod [targetIndex]
+ * </pre>
+ * The cluster is taken from {@code -Dopensearch.endpoint} (or {@code OPENSEARCH_ENDPOINT}),
+ * with optional {@code opensearch.username} and {@code opensearch.password}.
+ *
+ * Export walks the index one shard at a time, paging with {@code search_after} on
+ * {@code _seq_no}, which has doc values and is unique within a shard, so no {@code _id}
+ * fielddata is loaded onto the heap. It writes parts of {@code snapshot.part-records}
+ * chunks (see {@link SnapshotPart}); the manifest records the shard and sequence number
+ * reached after every part, so an interrupted export continues from the last complete
+ * part. Unlike a scroll or PIT context, the cursor survives a restart of the tool; a
+ * chunk updated during the export may be written twice, which import absorbs because
+ * documents keep their IDs.
+ * Import sends parts as bulk requests of {@code snapshot.bulk-size} with at most
+ * {@code snapshot.parallelism} in flight and records finished parts in a progress file;
+ * documents keep their IDs, so re-sending a part is harmless. Memory stays bounded by one
+ * search page on export and by the bulk requests in flight on import.
+ */
+public class IndexSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexSnapshot.class);
+
+    private static final String MANIFEST = "manifest.json";
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final OpenSearchClient client;
+    private final int pageSize = Integer.getInteger("snapshot.page-size", 500);
+    private final int partRecords = Integer.getInteger("snapshot.part-records", 20_000);
+    private final int bulkSize = Integer.getInteger("snapshot.bulk-size", 500);
+    private final int parallelism = Integer.getInteger("snapshot.parallelism", 4);
+
+    IndexSnapshot(OpenSearchClient client) {
+        this.client = client;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2 || !Set.of("export", "import").contains(args[0])
+                || (args[0].equals("export") && args.length < 3)) {
+            System.err.println("Usage: IndexSnapshot export <index> <dir> | import <dir> [targetIndex]");
+            System.exit(2);
+        }
+        OpenSearchTransport transport = transport();
+        try {
+            IndexSnapshot snapshot = new IndexSnapshot(new OpenSearchClient(transport));
+            if (args[0].equals("export")) {
+                snapshot.export(args[1], Path.of(args[2]));
+            } else {
+                snapshot.importSnapshot(Path.of(args[1]), args.length > 2 ? args[2] : null);
+            }
+        } finally {
+            transport.close();
+        }
+    }
+
+    /**
+     * Export every chunk of the index, continuing an interrupted export in the same directory
+     */
+    void export(String index, Path dir) throws IOException {
+        Files.createDirectories(dir);
+        Manifest manifest = Files.exists(dir.resolve(MANIFEST))
+                ? readManifest(dir)
+                : new Manifest(index, 0, mappingJson(index), List.of(), null, 0, false);
+        if (!manifest.index().equals(index)) {
+            throw new IllegalStateException("Directory holds a snapshot of " + manifest.index() + ", not " + index);
+        }
+        if (manifest.complete()) {
+            logger.info("Snapshot of {} in {} is already complete ({} chunks)", index, dir, manifest.records());
+            return;
+        }
+        try (Stream<Path> stale = Files.list(dir)) {
+            for (Path file : stale.filter(file -> file.toString().endsWith(".tmp")).toList()) {
+                Files.delete(file);
+            }
+        }
+        if (manifest.cursor() != null) {
+            logger.info("Resuming export of {} after {} parts ({} chunks)", index, manifest.parts().size(), manifest.records());
+        }
+
+        long startTime = System.currentTimeMillis();
+        int shards = numberOfShards(index);
+        Cursor cursor = manifest.cursor();
+        SnapshotPart.Writer writer = null;
+        String partFile = null;
+        for (int shard = cursor != null ? cursor.shard() : 0; shard < shards; shard++) {
+            Long after = cursor != null && cursor.shard() == shard ? cursor.seqNo() : null;
+            while (true) {
+                SearchResponse<StoredChunk> page = searchAfter(index, shard, after);
+                if (page.hits().hits().isEmpty()) {
+                    break;
+                }
+                for (Hit<StoredChunk> hit : page.hits().hits()) {
+                    after = Long.parseLong(hit.sort().get(0));
+                    cursor = new Cursor(shard, after);
+                    StoredChunk source = hit.source();
+                    if (source == null || source.vector() == null) {
+                        logger.warn("Skipping {}: no vector in _source", hit.id());
+                        continue;
+                    }
+                    if (writer == null) {
+                        int dimension = manifest.dimension() > 0 ? manifest.dimension() : source.vector().length;
+                        manifest = manifest.withDimension(dimension);
+                        partFile = String.format("part-%05d.rsnp.gz", manifest.parts().size());
+                        writer = new SnapshotPart.Writer(dir.resolve(partFile + ".tmp"), dimension);
+                    }
+                    writer.write(new SnapshotPart.Chunk(hit.id(), source.text(), source.metadata(), source.vector()));
+                    if (writer.records() >= partRecords) {
+                        manifest = finishPart(dir, manifest, writer, partFile, cursor);
+                        writer = null;
+                    }
+                }
+            }
+        }
+        if (writer != null) {
+            manifest = finishPart(dir, manifest, writer, partFile, cursor);
+        }
+        writeManifest(dir, manifest.completed());
+        logger.info("Exported {} chunks of {} into {} parts in {}s", manifest.records(), index,
+                manifest.parts().size(), (System.currentTimeMillis() - startTime) / 1000);
+    }
+
+    private Manifest finishPart(Path dir, Manifest manifest, SnapshotPart.Writer writer, String partFile, Cursor cursor)
+            throws IOException {
+        writer.close();
+        Files.move(dir.resolve(partFile + ".tmp"), dir.resolve(partFile), StandardCopyOption.ATOMIC_MOVE);
+        Manifest updated = manifest.withPart(new PartInfo(partFile, writer.records()), cursor);
+        writeManifest(dir, updated);
+        logger.info("Wrote {} ({} chunks, {} total)", partFile, writer.records(), updated.records());
+        return updated;
+    }
+
+    private SearchResponse<StoredChunk> searchAfter(String index, int shard, Long seqNo) throws IOException {
+        return client.search(s -> {
+            s.index(index)
+                    .preference("_shards:" + shard)
+                    .size(pageSize)
+                    .trackTotalHits(t -> t.enabled(false))
+                    .sort(sort -> sort.field(f -> f.field("_seq_no").order(SortOrder.Asc)));
+            if (seqNo != null) {
+                s.searchAfter(List.of(seqNo.toString()));
+            }
+            return s;
+        }, StoredChunk.class);
+    }
+
+    private int numberOfShards(String index) throws IOException {
+        IndexSettings settings = client.indices().getSettings(g -> g.index(index)).result().values().iterator().next().settings();
+        String shards = settings.numberOfShards() != null ? settings.numberOfShards()
+                : settings.index() != null ? settings.index().numberOfShards() : null;
+        if (shards == null) {
+            throw new IllegalStateException("Failed to read the shard count of " + index);
+        }
+        return Integer.parseInt(shards);
+    }
+
+    /**
+     * Bulk-load a snapshot, skipping parts a previous run already loaded
+     */
+    void importSnapshot(Path dir, String targetIndex) throws IOException, InterruptedException {
+        Manifest manifest = readManifest(dir);
+        if (!manifest.complete()) {
+            throw new IllegalStateException("Snapshot in " + dir + " is incomplete; finish the export first");
+        }
+        String index = targetIndex != null ? targetIndex : manifest.index();
+        boolean created = createIndexIfMissing(index, manifest.mapping());
+
+        Path progressFile = dir.resolve("import-" + index + ".progress");
+        Set<String> loaded = Files.exists(progressFile)
+                ? new HashSet<>(Files.readAllLines(progressFile, StandardCharsets.UTF_8))
+                : new HashSet<>();
+        if (!loaded.isEmpty()) {
+            logger.info("Resuming import into {}: {} of {} parts already loaded", index, loaded.size(), manifest.parts().size());
+        }
+
+        long startTime = System.currentTimeMillis();
+        long imported = 0;
+        Semaphore inFlight = new Semaphore(parallelism);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (PartInfo part : manifest.parts()) {
+                if (loaded.contains(part.file())) {
+                    continue;
+                }
+                List<Future<?>> bulks = new ArrayList<>();
+                try (SnapshotPart.Reader reader = new SnapshotPart.Reader(dir.resolve(part.file()))) {
+                    List<SnapshotPart.Chunk> batch = new ArrayList<>(bulkSize);
+                    for (SnapshotPart.Chunk chunk = reader.next(); chunk != null; chunk = reader.next()) {
+                        batch.add(chunk);
+                        if (batch.size() == bulkSize) {
+                            bulks.add(submitBulk(executor, inFlight, index, batch));
+                            batch = new ArrayList<>(bulkSize);
+                        }
+                    }
+                    if (!batch.isEmpty()) {
+                        bulks.add(submitBulk(executor, inFlight, index, batch));
+                    }
+                }
+                for (Future<?> bulk : bulks) {
+                    try {
+                        bulk.get();
+                    } catch (ExecutionException e) {
+                        throw new RuntimeException("Failed to import " + part.file(), e.getCause());
+                    }
+                }
+                Files.writeString(progressFile, part.file() + "\n", StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                imported += part.records();
+                logger.info("Loaded {} ({} chunks)", part.file(), part.records());
+            }
+        }
+
+        if (created) {
+            client.indices().putSettings(p -> p.index(index).settings(s -> s.refreshInterval(t -> t.time("1s"))));
+        }
+        client.indices().refresh(r -> r.index(index));
+        logger.info("Imported {} chunks into {} in {}s", imported, index, (System.currentTimeMillis() - startTime) / 1000);
+    }
+
+    private Future<?> submitBulk(ExecutorService executor, Semaphore inFlight, String index,
+                                 List<SnapshotPart.Chunk> batch) throws InterruptedException {
+        // Reading stops here while the permitted number of bulk requests is in flight
+        inFlight.acquire();
+        return executor.submit(() -> {
+            try {
+                bulk(index, batch);
+                return null;
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private void bulk(String index, List<SnapshotPart.Chunk> batch) throws IOException {
+        List<BulkOperation> operations = batch.stream()
+                .map(chunk -> BulkOperation.of(o -> o.index(i -> i
+                        .id(chunk.id())
+                        .document(new StoredChunk(chunk.text(), chunk.metadata(), chunk.vector())))))
+                .toList();
+        BulkResponse response = client.bulk(b -> b.index(index).operations(operations));
+        if (response.errors()) {
+            BulkResponseItem failed = response.items().stream()
+                    .filter(item -> item.error() != null)
+                    .findFirst()
+                    .orElseThrow();
+            throw new IOException("Bulk request rejected " + failed.id() + ": " + failed.error().reason());
+        }
+    }
+
+    /**
+     * Create the index with the exported mapping; refreshes stay off until the import finishes
+     */
+    private boolean createIndexIfMissing(String index, String mappingJson) throws IOException {
+        if (client.indices().exists(e -> e.index(index)).value()) {
+            logger.info("Importing into existing index {}", index);
+            return false;
+        }
+        JsonpMapper mapper = client._transport().jsonpMapper();
+        TypeMapping mapping = TypeMapping._DESERIALIZER.deserialize(
+                mapper.jsonProvider().createParser(new StringReader(mappingJson)), mapper);
+        client.indices().create(c -> c
+                .index(index)
+                .mappings(mapping)
+                .settings(s -> s.knn(true).refreshInterval(t -> t.time("-1"))));
+        logger.info("Created index {} from the snapshot mapping", index);
+        return true;
+    }
+
+    private String mappingJson(String index) throws IOException {
+        TypeMapping mapping = client.indices().getMapping(g -> g.index(index)).result().values().iterator().next().mappings();
+        JsonpMapper mapper = client._transport().jsonpMapper();
+        StringWriter json = new StringWriter();
+        try (JsonGenerator generator = mapper.jsonProvider().createGenerator(json)) {
+            mapping.serialize(generator, mapper);
+        }
+        return json.toString();
+    }
+
+    private static Manifest readManifest(Path dir) throws IOException {
+        return MAPPER.readValue(dir.resolve(MANIFEST).toFile(), Manifest.class);
+    }
+
+    private static void writeManifest(Path dir, Manifest manifest) throws IOException {
+        Path tmp = dir.resolve(MANIFEST + ".tmp");
+        MAPPER.writeValue(tmp.toFile(), manifest);
+        Files.move(tmp, dir.resolve(MANIFEST), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static OpenSearchTransport transport() {
+        URI endpoint = URI.create(setting("opensearch.endpoint", "OPENSEARCH_ENDPOINT", "http://localhost:9200"));
+        String username = setting("opensearch.username", "OPENSEARCH_USERNAME", "");
+        String password = setting("opensearch.password", "OPENSEARCH_PASSWORD", "");
+        HttpHost host = new HttpHost(endpoint.getScheme(), endpoint.getHost(), endpoint.getPort());
+
+        ObjectMapper objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        return ApacheHttpClient5TransportBuilder.builder(host)
+                .setMapper(new JacksonJsonpMapper(objectMapper))
+                .setCompressionEnabled(true)
+                .setHttpClientConfigCallback(httpClientBuilder -> {
+                    if (!username.isEmpty() && !password.isEmpty()) {
+                        BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+                        credentialsProvider.setCredentials(new AuthScope(host),
+                                new UsernamePasswordCredentials(username, password.toCharArray()));
+                        httpClientBuilder.setDefaultCredentialsProvider(credentialsProvider);
+                    }
+                    return httpClientBuilder;
+                })
+                .build();
+    }
+
+    private static String setting(String property, String environment, String defaultValue) {
+        String value = System.getProperty(property, System.getenv(environment));
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * {@code _source} of a chunk as written by OpenSearchEmbeddingStore
+     */
+    record StoredChunk(
+            String text,
+            Map<String, Object> metadata,
+            float[] vector
+    ) {}
+
+    /**
+     * Position of the export: the shard being read and the last sequence number exported from it
+     */
+    record Cursor(
+            int shard,
+            long seqNo
+    ) {}
+
+    /**
+     * Snapshot contents and the export cursor; complete once the whole index is exported
+     */
+    record Manifest(
+            String index,
+            int dimension,
+            String mapping,
+            List<PartInfo> parts,
+            Cursor cursor,
+            long records,
+            boolean complete
+    ) {
+        Manifest withDimension(int dimension) {
+            return new Manifest(index, dimension, mapping, parts, cursor, records, complete);
+        }
+
+        Manifest withPart(PartInfo part, Cursor cursor) {
+            List<PartInfo> updated = new ArrayList<>(parts);
+            updated.add(part);
+            return new Manifest(index, dimension, mapping, List.copyOf(updated), cursor, records + part.records(), complete);
+        }
+
+        Manifest completed() {
+            return new Manifest(index, dimension, mapping, parts, cursor, records, true);
+        }
+    }
+
+    record PartInfo(
+            String file,
+            int records
+    ) {}
+}
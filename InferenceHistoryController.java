@@ -0,0 +1,66 @@
+package com.example.ragapi.controller;
+
+import com.example.ragapi.model.*;
+import com.example.ragapi.service.InferenceHistoryQueryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/history")
+@CrossOrigin(origins = "*")
+public class InferenceHistoryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(InferenceHistoryController.class);
+
+    private final InferenceHistoryQueryService historyQueryService;
+
+    public InferenceHistoryController(InferenceHistoryQueryService historyQueryService) {
+        this.historyQueryService = historyQueryService;
+    }
+
+    /**
+     * Page through a conversation, newest turn first
+     */
+    @GetMapping("/conversations/{conversationId}")
+    public ResponseEntity<?> conversation(
+            @PathVariable String conversationId,
+            @RequestHeader(value = "X-ClientName", required = false) String clientName,
+            @RequestHeader(value = "X-UserId", required = false) String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate since) {
+        try {
+            return ResponseEntity.ok(historyQueryService.findConversation(
+                    owner(clientName), userId, conversationId, cursor, limit, since));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected history page request for conversation {}: {}", conversationId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ErrorResponse.create(
+                400, "Bad Request", e.getMessage(), "/api/v1/history/conversations/" + conversationId));
+        }
+    }
+
+    /**
+     * Turns recorded under a tracking ID
+     */
+    @GetMapping("/tracking/{trackingId}")
+    public ResponseEntity<List<HistoryEntry>> tracking(
+            @PathVariable String trackingId,
+            @RequestHeader(value = "X-ClientName", required = false) String clientName,
+            @RequestHeader(value = "X-UserId", required = false) String userId) {
+        return ResponseEntity.ok(historyQueryService.findByTrackingId(owner(clientName), userId, trackingId));
+    }
+
+    /**
+     * Client name as recorded by {@link InferenceContext#of}
+     */
+    private static String owner(String clientName) {
+        return clientName != null ? clientName : InferenceContext.UNKNOWN_CLIENT;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.ragapi.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Makes sure the monthly inference history partitions exist ahead of the calendar.
+ *
+ * Calls benefits_assist_inference_history_create_partitions (benefitsassist_inference_history.sql)
+ * once on start, as a backstop for databases without the pg_cron job. Without it every
+ * row would land in the default partition once the pre-created months run out. A no-op on
+ * H2, which has no partitioning.
+ */
+@Component
+public class InferenceHistoryPartitions {
+
+    private static final Logger logger = LoggerFactory.getLogger(InferenceHistoryPartitions.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${inference-history.partitions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${inference-history.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    public InferenceHistoryPartitions(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePartitions() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equalsIgnoreCase(product)) {
+                return;
+            }
+            Integer created = jdbcTemplate.queryForObject(
+                    "SELECT benefits_assist_inference_history_create_partitions(?)", Integer.class, monthsAhead);
+            logger.info("Inference history partitions ensured {} months ahead, {} created", monthsAhead, created);
+        } catch (Exception e) {
+            // Writes still succeed into the default partition; only pruning suffers
+            logger.warn("Failed to create inference history partitions: {}", e.getMessage());
+        }
+    }
+}
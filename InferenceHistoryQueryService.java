@@ -0,0 +1,168 @@
+package com.example.ragapi.service;
+
+import com.example.ragapi.model.HistoryEntry;
+import com.example.ragapi.model.HistoryPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read side of the inference history table.
+ *
+ * Conversation pages use keyset pagination on (submit_date_time, id), newest first, so
+ * every page is a single range scan of idx_inference_history_conversation regardless of
+ * how deep the caller pages. The optional {@code since} date bounds request_date, which
+ * lets PostgreSQL prune partitions.
+ */
+@Service
+public class InferenceHistoryQueryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InferenceHistoryQueryService.class);
+
+    private static final String SELECT_COLUMNS = """
+        SELECT id, tracking_id, conversation_id, message_id, submit_date_time, client_name,
+               user_query, response_text, conversation_model_name, inference_confidence_score,
+               total_tokens, rag_chunks_retrieved, rag_retrieval_score
+        FROM benefits_assist_inference_history
+        """;
+
+    private static final RowMapper<HistoryEntry> ROW_MAPPER = (rs, rowNum) -> new HistoryEntry(
+            rs.getObject("id", UUID.class),
+            rs.getString("tracking_id"),
+            rs.getString("conversation_id"),
+            rs.getString("message_id"),
+            rs.getObject("submit_date_time", OffsetDateTime.class),
+            rs.getString("client_name"),
+            rs.getString("user_query"),
+            rs.getString("response_text"),
+            rs.getString("conversation_model_name"),
+            rs.getBigDecimal("inference_confidence_score"),
+            rs.getObject("total_tokens", Integer.class),
+            rs.getObject("rag_chunks_retrieved", Integer.class),
+            rs.getObject("rag_retrieval_score", Double.class));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxPageSize;
+
+    public InferenceHistoryQueryService(
+            JdbcTemplate jdbcTemplate,
+            @Value("${inference-history.query.max-page-size:100}") int maxPageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Page through a conversation newest first, continuing after the given cursor. Only turns
+     * recorded for the same client and user are returned, whatever conversation ID is asked for.
+     *
+     * @throws IllegalArgumentException if the cursor is not one this service issued
+     */
+    public HistoryPage findConversation(String clientName, String userId, String conversationId,
+                                        String cursor, int limit, LocalDate since) {
+        int pageSize = Math.max(1, Math.min(limit, maxPageSize));
+
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append("WHERE conversation_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(conversationId);
+        appendOwner(sql, args, clientName, userId);
+
+        if (since != null) {
+            sql.append(" AND request_date >= ?");
+            args.add(since);
+        }
+        if (cursor != null && !cursor.isBlank()) {
+            Cursor position = Cursor.decode(cursor);
+            sql.append(" AND (submit_date_time, id) < (?, ?)");
+            args.add(position.submitDateTime());
+            args.add(position.id());
+        }
+        // One extra row tells us whether another page exists without a count query
+        sql.append(" ORDER BY submit_date_time DESC, id DESC LIMIT ?");
+        args.add(pageSize + 1);
+
+        List<HistoryEntry> rows = jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            HistoryEntry last = rows.get(pageSize - 1);
+            nextCursor = new Cursor(last.submitDateTime(), last.id()).encode();
+        }
+
+        logger.debug("Conversation {} page returned {} entries", conversationId, rows.size());
+        return new HistoryPage(List.copyOf(rows), nextCursor);
+    }
+
+    /**
+     * All turns recorded under a tracking ID for the same client and user, oldest first
+     */
+    public List<HistoryEntry> findByTrackingId(String clientName, String userId, String trackingId) {
+        StringBuilder sql = new StringBuilder(SELECT_COLUMNS).append("WHERE tracking_id = ?");
+        List<Object> args = new ArrayList<>();
+        args.add(trackingId);
+        appendOwner(sql, args, clientName, userId);
+        sql.append(" ORDER BY submit_date_time, id");
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    private static void appendOwner(StringBuilder sql, List<Object> args, String clientName, String userId) {
+        sql.append(" AND client_name = ?");
+        args.add(clientName);
+        // Explicit IS NULL: an untyped null parameter is not comparable in PostgreSQL
+        if (userId == null) {
+            sql.append(" AND user_id IS NULL");
+        } else {
+            sql.append(" AND user_id = ?");
+            args.add(userId);
+        }
+    }
+
+    /**
+     * Most frequent questions asked since the given date, most frequent first
+     */
+    public List<String> findHotQueries(int limit, LocalDate since) {
+        // request_date bounds the scan to recent partitions
+        return jdbcTemplate.queryForList("""
+                SELECT user_query
+                FROM benefits_assist_inference_history
+                WHERE request_date >= ? AND user_query IS NOT NULL
+                GROUP BY user_query
+                ORDER BY COUNT(*) DESC
+                LIMIT ?
+                """, String.class, since, limit);
+    }
+
+    /**
+     * Opaque position of the last row of a page
+     */
+    record Cursor(OffsetDateTime submitDateTime, UUID id) {
+
+        String encode() {
+            String raw = submitDateTime + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new Cursor(OffsetDateTime.parse(raw.substring(0, separator)),
+                        UUID.fromString(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new IllegalArgumentException("Invalid history cursor", e);
+            }
+        }
+    }
+}
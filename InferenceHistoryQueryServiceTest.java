@@ -0,0 +1,133 @@
+package com.example.ragapi.service;
+
+import com.example.ragapi.model.HistoryEntry;
+import com.example.ragapi.model.HistoryPage;
+import org.h2.Driver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the keyset history queries against the H2 schema the service uses by default
+ */
+class InferenceHistoryQueryServiceTest {
+
+    private static final String CLIENT = "test-client";
+    private static final String USER = "user-1";
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2026, 3, 10, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    private JdbcTemplate jdbcTemplate;
+    private InferenceHistoryQueryService service;
+
+    @BeforeEach
+    void setUp() {
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(new Driver(),
+                "jdbc:h2:mem:history-" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("benefits_assist_inference_history_h2.sql"))
+                .execute(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        service = new InferenceHistoryQueryService(jdbcTemplate, 100);
+    }
+
+    @Test
+    void pagesThroughConversationNewestFirstWithoutGapsOrDuplicates() {
+        // Two turns share a timestamp so the id tiebreak of the cursor is exercised
+        insert("conv-1", BASE.minusMinutes(4), "q1");
+        insert("conv-1", BASE.minusMinutes(3), "q2");
+        insert("conv-1", BASE.minusMinutes(2), "q3");
+        insert("conv-1", BASE.minusMinutes(2), "q4");
+        insert("conv-1", BASE.minusMinutes(1), "q5");
+        insert("conv-2", BASE, "other");
+
+        List<HistoryEntry> all = service.findConversation(CLIENT, USER, "conv-1", null, 100, null).items();
+        assertThat(all).hasSize(5);
+
+        List<HistoryEntry> paged = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        String cursor = null;
+        do {
+            HistoryPage page = service.findConversation(CLIENT, USER, "conv-1", cursor, 2, null);
+            paged.addAll(page.items());
+            pageSizes.add(page.items().size());
+            cursor = page.nextCursor();
+        } while (cursor != null);
+
+        assertThat(pageSizes).containsExactly(2, 2, 1);
+        assertThat(paged).extracting(HistoryEntry::id).containsExactlyElementsOf(
+                all.stream().map(HistoryEntry::id).toList());
+        assertThat(new HashSet<>(paged.stream().map(HistoryEntry::id).toList())).hasSize(5);
+        for (int i = 1; i < paged.size(); i++) {
+            assertThat(paged.get(i).submitDateTime()).isBeforeOrEqualTo(paged.get(i - 1).submitDateTime());
+        }
+        assertThat(paged).extracting(HistoryEntry::conversationId).containsOnly("conv-1");
+    }
+
+    @Test
+    void sinceBoundsRequestDate() {
+        insert("conv-1", BASE.minusDays(40), "old");
+        insert("conv-1", BASE, "new");
+
+        HistoryPage page = service.findConversation(CLIENT, USER, "conv-1", null, 10, BASE.toLocalDate().minusDays(7));
+
+        assertThat(page.items()).extracting(HistoryEntry::userQuery).containsExactly("new");
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void onlyReturnsTheCallersOwnTurns() {
+        insert("conv-1", BASE, "mine");
+        insert(CLIENT, "user-2", "conv-1", BASE, "same conversation id, other user");
+        insert("other-client", USER, "conv-1", BASE, "same conversation id, other client");
+
+        assertThat(service.findConversation(CLIENT, USER, "conv-1", null, 10, null).items())
+                .extracting(HistoryEntry::userQuery).containsExactly("mine");
+        assertThat(service.findConversation(CLIENT, null, "conv-1", null, 10, null).items()).isEmpty();
+    }
+
+    @Test
+    void rejectsForeignCursor() {
+        assertThatThrownBy(() -> service.findConversation(CLIENT, USER, "conv-1", "not-a-cursor", 10, null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void hotQueriesAreOrderedByFrequency() {
+        insert("conv-1", BASE, "deductible");
+        insert("conv-2", BASE, "deductible");
+        insert("conv-3", BASE, "copay");
+
+        assertThat(service.findHotQueries(10, BASE.toLocalDate().minusDays(1)))
+                .containsExactly("deductible", "copay");
+    }
+
+    private void insert(String conversationId, OffsetDateTime submitted, String question) {
+        insert(CLIENT, USER, conversationId, submitted, question);
+    }
+
+    private void insert(String clientName, String userId, String conversationId, OffsetDateTime submitted,
+                        String question) {
+        LocalDate requestDate = submitted.toLocalDate();
+        jdbcTemplate.update("""
+                INSERT INTO benefits_assist_inference_history (
+                    id, client_name, user_id, tracking_id, submit_date_time, conversation_id, message_id,
+                    request_date, user_query, response_text, coverage_package_codes
+                ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """,
+                UUID.randomUUID(), clientName, userId, UUID.randomUUID().toString(), submitted, conversationId,
+                UUID.randomUUID().toString(), requestDate, question, "answer to " + question, "");
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.ragapi.service;
+
+import com.benefitsassist.entity.BenefitsAssistInferenceHistory;
+import com.example.ragapi.model.InferenceContext;
+import com.example.ragapi.model.QueryRequest;
+import com.example.ragapi.model.QueryResponse;
+import com.example.ragapi.model.RetrievedDocument;
+import com.example.ragapi.model.TokenCounts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind recorder for inference history.
+ *
+ * Callers hand over a record and return immediately; a single background thread drains
+ * the bounded buffer and inserts in JDBC batches whenever a batch fills up or the flush
+ * interval elapses. When the buffer is full the record is dropped and counted rather
+ * than blocking the request thread.
+ *
+ * Where no thread may outlive the request, as on Lambda where the environment is frozen
+ * once the handler returns, the background writer is switched off and the caller drains
+ * the buffer with {@link #flushPending()} before responding.
+ */
+@Service
+public class InferenceHistoryRecorder implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(InferenceHistoryRecorder.class);
+
+    private static final String INSERT_SQL = """
+        INSERT INTO benefits_assist_inference_history (
+            id, client_name, client_session_id, tracking_id, submit_date_time, user_id, user_role,
+            conversation_id, message_id, request_date, user_query, response_text, coverage_package_codes,
+            group_anniversary_date, state_code, conversation_model_name, conversation_model_version,
+            embedding_model_name, embedding_model_version, inference_confidence_score, conversation_intent,
+            prompt_tokens, completion_tokens, total_tokens, rag_chunks_retrieved, rag_retrieval_score
+        ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<PendingRecord> buffer;
+    private final int batchSize;
+    private final long flushIntervalMs;
+
+    private final Counter enqueued;
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter failed;
+    private final Timer lag;
+    private final Timer flushTimer;
+
+    @Value("${inference-history.enabled:true}")
+    private boolean enabled;
+
+    @Value("${bedrock.embedding.model:amazon.titan-embed-text-v1}")
+    private String embeddingModelId;
+
+    @Value("${inference-history.write-behind.background:true}")
+    private boolean background;
+
+    @Value("${spring.datasource.url:}")
+    private String datasourceUrl;
+
+    @Value("${inference-history.allow-in-memory-datasource:false}")
+    private boolean allowInMemoryDatasource;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public InferenceHistoryRecorder(
+            JdbcTemplate jdbcTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${inference-history.write-behind.buffer-capacity:10000}") int bufferCapacity,
+            @Value("${inference-history.write-behind.batch-size:200}") int batchSize,
+            @Value("${inference-history.write-behind.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+
+        Gauge.builder("inference.history.buffer.size", buffer, BlockingQueue::size)
+                .description("Inference history records waiting to be written")
+                .register(meterRegistry);
+        this.enqueued = Counter.builder("inference.history.enqueued").register(meterRegistry);
+        this.dropped = Counter.builder("inference.history.dropped")
+                .description("Records dropped because the write-behind buffer was full")
+                .register(meterRegistry);
+        this.written = Counter.builder("inference.history.written").register(meterRegistry);
+        this.failed = Counter.builder("inference.history.failed")
+                .description("Records lost because their batch insert failed")
+                .register(meterRegistry);
+        this.lag = Timer.builder("inference.history.lag")
+                .description("Time from enqueue to committed insert")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("inference.history.flush")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queue a completed query for persistence; never blocks
+     */
+    public boolean recordQuery(InferenceContext context, QueryRequest request, QueryResponse response) {
+        if (!enabled) {
+            return false;
+        }
+        return record(toHistory(context, request, response));
+    }
+
+    /**
+     * Queue a history record for persistence; never blocks
+     */
+    public boolean record(BenefitsAssistInferenceHistory history) {
+        if (history.getId() == null) {
+            history.setId(UUID.randomUUID());
+        }
+        if (buffer.offer(new PendingRecord(history, System.nanoTime()))) {
+            enqueued.increment();
+            return true;
+        }
+        dropped.increment();
+        logger.warn("Inference history buffer full, dropping record for tracking ID: {}", history.getTrackingId());
+        return false;
+    }
+
+    private BenefitsAssistInferenceHistory toHistory(InferenceContext context, QueryRequest request, QueryResponse response) {
+        BenefitsAssistInferenceHistory history = new BenefitsAssistInferenceHistory();
+        history.setId(UUID.randomUUID());
+        history.setClientName(context.clientName());
+        history.setClientSessionId(context.clientSessionId());
+        history.setTrackingId(context.trackingId());
+        history.setSubmitDateTime(context.submitDateTime());
+        history.setUserId(context.userId());
+        history.setUserRole(context.userRole());
+        history.setConversationId(request.conversationId() != null ? request.conversationId() : context.trackingId());
+        history.setMessageId(UUID.randomUUID().toString());
+        history.setRequestDate(LocalDate.now());
+        history.setUserQuery(request.question());
+        history.setResponseText(response.answer());
+        history.setCoveragePackageCodes(request.coveragePackageCodes() != null
+                ? String.join(",", request.coveragePackageCodes()) : "");
+        history.setStateCode(request.stateCode());
+        // Model the router actually used; null when no generation ran (e.g. nothing retrieved)
+        history.setConversationModelName(response.metadata() != null ? response.metadata().modelId() : null);
+        history.setEmbeddingModelName(embeddingModelId);
+        history.setInferenceConfidenceScore(BigDecimal.valueOf(response.confidence()).setScale(4, RoundingMode.HALF_UP));
+        // Bedrock usage of the generation call; absent for fast-path and no-document answers
+        TokenCounts tokens = response.metadata() != null ? response.metadata().tokens() : null;
+        if (tokens != null) {
+            history.setPromptTokens(tokens.promptTokens());
+            history.setCompletionTokens(tokens.completionTokens());
+            history.setTotalTokens(tokens.totalTokens());
+        }
+        history.setRagChunksRetrieved(response.sources().size());
+        history.setRagRetrievalScore(response.sources().stream()
+                .mapToDouble(RetrievedDocument::score).max().orElse(0.0));
+        return history;
+    }
+
+    /**
+     * Write everything buffered so far on the calling thread
+     */
+    public void flushPending() {
+        List<PendingRecord> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    private void runFlusher() {
+        List<PendingRecord> batch = new ArrayList<>(batchSize);
+        long lastFlush = System.nanoTime();
+
+        while (running || !buffer.isEmpty()) {
+            try {
+                PendingRecord first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    buffer.drainTo(batch, batchSize - batch.size());
+                }
+
+                boolean intervalElapsed = System.nanoTime() - lastFlush >= TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                if (batch.size() >= batchSize || (!batch.isEmpty() && (intervalElapsed || !running))) {
+                    flush(batch);
+                    batch.clear();
+                    lastFlush = System.nanoTime();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<PendingRecord> batch) {
+        long startNanos = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(),
+                    (ps, pending) -> bind(ps, pending.history()));
+
+            long now = System.nanoTime();
+            batch.forEach(pending -> lag.record(now - pending.enqueuedNanos(), TimeUnit.NANOSECONDS));
+            written.increment(batch.size());
+            logger.debug("Flushed {} inference history records", batch.size());
+        } catch (Exception e) {
+            failed.increment(batch.size());
+            logger.error("Failed to write batch of {} inference history records", batch.size(), e);
+        } finally {
+            flushTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void bind(PreparedStatement ps, BenefitsAssistInferenceHistory history) throws SQLException {
+        ps.setObject(1, history.getId());
+        ps.setString(2, history.getClientName());
+        ps.setString(3, history.getClientSessionId());
+        ps.setString(4, history.getTrackingId());
+        ps.setObject(5, history.getSubmitDateTime());
+        ps.setString(6, history.getUserId());
+        ps.setString(7, history.getUserRole());
+        ps.setString(8, history.getConversationId());
+        ps.setString(9, history.getMessageId());
+        ps.setObject(10, history.getRequestDate());
+        ps.setString(11, history.getUserQuery());
+        ps.setString(12, history.getResponseText());
+        ps.setString(13, history.getCoveragePackageCodes());
+        ps.setObject(14, history.getGroupAnniversaryDate(), Types.DATE);
+        ps.setString(15, history.getStateCode());
+        ps.setString(16, history.getConversationModelName());
+        ps.setString(17, history.getConversationModelVersion());
+        ps.setString(18, history.getEmbeddingModelName());
+        ps.setString(19, history.getEmbeddingModelVersion());
+        ps.setBigDecimal(20, history.getInferenceConfidenceScore());
+        ps.setString(21, history.getConversationIntent());
+        ps.setObject(22, history.getPromptTokens(), Types.INTEGER);
+        ps.setObject(23, history.getCompletionTokens(), Types.INTEGER);
+        ps.setObject(24, history.getTotalTokens(), Types.INTEGER);
+        ps.setObject(25, history.getRagChunksRetrieved(), Types.INTEGER);
+        ps.setObject(26, history.getRagRetrievalScore(), Types.DOUBLE);
+    }
+
+    @Override
+    public void start() {
+        if (enabled && datasourceUrl.startsWith("jdbc:h2:mem:") && !allowInMemoryDatasource) {
+            // Each instance would keep, and lose, its own history; point HISTORY_DATASOURCE_URL at PostgreSQL
+            throw new IllegalStateException("Inference history is enabled but the datasource is in-memory H2; "
+                    + "set HISTORY_DATASOURCE_URL or inference-history.allow-in-memory-datasource=true");
+        }
+        running = true;
+        if (!background) {
+            logger.info("Inference history background writer disabled, records are flushed by the caller");
+            return;
+        }
+        flusher = new Thread(this::runFlusher, "inference-history-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Inference history write-behind started (batchSize={}, flushIntervalMs={})",
+                batchSize, flushIntervalMs);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            try {
+                // Let the flusher drain what is left before the datasource closes
+                flusher.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flushPending();
+        logger.info("Inference history write-behind stopped, {} records left unwritten", buffer.size());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Buffered record with its enqueue time for lag measurement
+     */
+    private record PendingRecord(BenefitsAssistInferenceHistory history, long enqueuedNanos) {}
+}
@@ -0,0 +1,115 @@
+package com.example.ragapi.perf;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.example.ragapi.lambda.LambdaHandler;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Replays API Gateway proxy events through {@link LambdaHandler} in-process and reports
+ * init time and per-invocation latency per route.
+ *
+ * The health route does no downstream work, so its latency is the handler's own
+ * overhead (routing, Jackson, response building). Bedrock is served by a local
+ * {@link BedrockStandIn}; OpenSearch is expected on {@code http://localhost:9200}.
+ * <pre>
+ *   java -cp target/rag-api-langchain4j-1.0.0-aws.jar com.example.ragapi.perf.LambdaEventReplay [eventsDir] [iterations]
+ * </pre>
+ * Without an events directory a built-in set of health, query and index events is replayed.
+ */
+public class LambdaEventReplay {
+
+    private static final Logger logger = LoggerFactory.getLogger(LambdaEventReplay.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public static void main(String[] args) throws Exception {
+        Path eventsDir = args.length > 0 && !args[0].isEmpty() ? Path.of(args[0]) : null;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+        try (BedrockStandIn bedrock = new BedrockStandIn(0, 1536).start()) {
+            System.setProperty("bedrock.endpoint-override", bedrock.endpoint());
+            System.setProperty("opensearch.endpoint", System.getProperty("opensearch.endpoint", "http://localhost:9200"));
+
+            Map<String, APIGatewayProxyRequestEvent> events = eventsDir != null ? loadEvents(eventsDir) : builtInEvents();
+
+            long initStart = System.nanoTime();
+            LambdaHandler handler = new LambdaHandler();
+            logger.info("Handler init (class load + context refresh): {} ms", (System.nanoTime() - initStart) / 1_000_000);
+
+            for (Map.Entry<String, APIGatewayProxyRequestEvent> entry : events.entrySet()) {
+                long[] samplesMicros = new long[iterations];
+                int failures = 0;
+
+                // First invocation is reported separately: it pays for lazy paths not touched at init
+                long firstStart = System.nanoTime();
+                handler.handleRequest(entry.getValue(), null);
+                long firstMicros = (System.nanoTime() - firstStart) / 1_000;
+
+                for (int i = 0; i < iterations; i++) {
+                    long start = System.nanoTime();
+                    APIGatewayProxyResponseEvent response = handler.handleRequest(entry.getValue(), null);
+                    samplesMicros[i] = (System.nanoTime() - start) / 1_000;
+                    if (response.getStatusCode() >= 500) {
+                        failures++;
+                    }
+                }
+
+                Arrays.sort(samplesMicros);
+                logger.info("{}: first={}us p50={}us p90={}us p99={}us max={}us failures={}/{}",
+                        entry.getKey(), firstMicros,
+                        percentile(samplesMicros, 0.50), percentile(samplesMicros, 0.90),
+                        percentile(samplesMicros, 0.99), samplesMicros[samplesMicros.length - 1],
+                        failures, iterations);
+            }
+        }
+        System.exit(0);
+    }
+
+    private static Map<String, APIGatewayProxyRequestEvent> loadEvents(Path eventsDir) throws Exception {
+        Map<String, APIGatewayProxyRequestEvent> events = new LinkedHashMap<>();
+        try (Stream<Path> files = Files.list(eventsDir)) {
+            List<Path> sorted = new ArrayList<>(files.filter(file -> file.toString().endsWith(".json")).sorted().toList());
+            for (Path file : sorted) {
+                events.put(file.getFileName().toString(), MAPPER.readValue(file.toFile(), APIGatewayProxyRequestEvent.class));
+            }
+        }
+        return events;
+    }
+
+    private static Map<String, APIGatewayProxyRequestEvent> builtInEvents() {
+        Map<String, APIGatewayProxyRequestEvent> events = new LinkedHashMap<>();
+        events.put("GET health", event("GET", "/api/v1/rag/health", null));
+        events.put("POST index", event("POST", "/api/v1/documents/index",
+                "{\"content\":\"Vision exams are covered once every 12 months.\",\"metadata\":{\"title\":\"Vision\"}}"));
+        events.put("POST query", event("POST", "/api/v1/rag/query",
+                "{\"question\":\"How often are vision exams covered?\",\"max_results\":3,\"threshold\":0.0}"));
+        return events;
+    }
+
+    private static APIGatewayProxyRequestEvent event(String method, String path, String body) {
+        return new APIGatewayProxyRequestEvent()
+                .withHttpMethod(method)
+                .withPath(path)
+                .withHeaders(Map.of("Content-Type", "application/json"))
+                .withBody(body);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
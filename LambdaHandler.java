@@ -0,0 +1,290 @@
+package com.example.ragapi.lambda;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.example.ragapi.RagApiApplication;
+import com.example.ragapi.model.*;
+import com.example.ragapi.service.DocumentService;
+import com.example.ragapi.service.InferenceHistoryRecorder;
+import com.example.ragapi.service.RagService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Direct API Gateway proxy handler.
+ *
+ * Boots the Spring context once per execution environment without a servlet container and
+ * dispatches events straight to {@link RagService} and {@link DocumentService}. Jackson
+ * readers and writers are resolved once and reused for every invocation. The servlet
+ * admission gate is not applied here; the function's reserved concurrency bounds load.
+ */
+public class LambdaHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(LambdaHandler.class);
+
+    private static final String RAG_PREFIX = "/api/v1/rag";
+    private static final String DOCUMENTS_PREFIX = "/api/v1/documents";
+    private static final Map<String, String> JSON_HEADERS = Map.of(
+            "Content-Type", "application/json",
+            "Access-Control-Allow-Origin", "*");
+
+    private static final ConfigurableApplicationContext context;
+    private static final RagService ragService;
+    private static final DocumentService documentService;
+    private static final InferenceHistoryRecorder historyRecorder;
+    private static final Validator validator;
+
+    private static final ObjectReader queryRequestReader;
+    private static final ObjectReader indexRequestReader;
+    private static final ObjectReader batchIndexRequestReader;
+    private static final ObjectReader deleteRequestReader;
+    private static final ObjectWriter responseWriter;
+
+    static {
+        long startTime = System.currentTimeMillis();
+
+        // Heavy clients (Bedrock, OpenSearch) are created here, during the init phase,
+        // and shared by every invocation served by this execution environment. spring.main.*
+        // in applicaton.yml is bound after the builder's settings, so these go in as
+        // command-line properties, which take precedence over the config file. The environment
+        // is frozen between invocations, so inference history is written before each response
+        // instead of by a background thread.
+        context = new SpringApplicationBuilder(RagApiApplication.class)
+                .run("--spring.main.web-application-type=none",
+                        "--spring.main.lazy-initialization=false",
+                        "--inference-history.write-behind.background=false");
+        if (context instanceof WebServerApplicationContext) {
+            context.close();
+            throw new IllegalStateException("Lambda handler must not start a servlet web server");
+        }
+
+        ragService = context.getBean(RagService.class);
+        documentService = context.getBean(DocumentService.class);
+        historyRecorder = context.getBean(InferenceHistoryRecorder.class);
+        validator = context.getBean(Validator.class);
+
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class);
+        queryRequestReader = objectMapper.readerFor(QueryRequest.class);
+        indexRequestReader = objectMapper.readerFor(IndexDocumentRequest.class);
+        batchIndexRequestReader = objectMapper.readerFor(BatchIndexRequest.class);
+        deleteRequestReader = objectMapper.readerFor(DeleteDocumentsRequest.class);
+        responseWriter = objectMapper.writer();
+
+        logger.info("Lambda handler initialized in {}ms", System.currentTimeMillis() - startTime);
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent event, Context lambdaContext) {
+        long startNanos = System.nanoTime();
+        String method = event.getHttpMethod() != null ? event.getHttpMethod() : "GET";
+        String path = event.getPath() != null ? event.getPath() : "/";
+
+        try {
+            return route(method, path, event);
+        } catch (JsonProcessingException e) {
+            logger.warn("Malformed request body for {} {}: {}", method, path, e.getOriginalMessage());
+            return error(400, "Bad Request", "Malformed JSON request body", path);
+        } catch (Exception e) {
+            logger.error("Error handling {} {}", method, path, e);
+            return error(500, "Internal Server Error", "An unexpected error occurred", path);
+        } finally {
+            historyRecorder.flushPending();
+            logger.debug("Handled {} {} in {}us", method, path, (System.nanoTime() - startNanos) / 1_000);
+        }
+    }
+
+    private APIGatewayProxyResponseEvent route(String method, String path, APIGatewayProxyRequestEvent event)
+            throws Exception {
+        String body = event.getBody();
+        switch (method) {
+            case "POST" -> {
+                if (path.equals(RAG_PREFIX + "/query")) {
+                    return query(body, path, inferenceContext(event));
+                }
+                if (path.equals(DOCUMENTS_PREFIX + "/index")) {
+                    return indexDocument(body, path);
+                }
+                if (path.equals(DOCUMENTS_PREFIX + "/index/batch")) {
+                    return indexDocumentsBatch(body, path);
+                }
+            }
+            case "DELETE" -> {
+                if (path.equals(DOCUMENTS_PREFIX + "/batch")) {
+                    return deleteDocuments(body, path);
+                }
+                if (path.startsWith(DOCUMENTS_PREFIX + "/")) {
+                    return deleteDocuments(List.of(path.substring(DOCUMENTS_PREFIX.length() + 1)));
+                }
+            }
+            case "GET" -> {
+                if (path.equals(RAG_PREFIX + "/health")) {
+                    return respond(200, new HealthResponse("UP", "rag-api-langchain4j", "1.0.0",
+                            System.currentTimeMillis(), Map.of()));
+                }
+            }
+            case "OPTIONS" -> {
+                return new APIGatewayProxyResponseEvent().withStatusCode(200).withHeaders(JSON_HEADERS);
+            }
+            default -> {
+            }
+        }
+        return error(404, "Not Found", "No route for " + method + " " + path, path);
+    }
+
+    private APIGatewayProxyResponseEvent query(String body, String path, InferenceContext context) throws Exception {
+        QueryRequest request = queryRequestReader.readValue(body);
+        APIGatewayProxyResponseEvent invalid = validate(request, path);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        QueryResponse response = ragService.processQuery(request, context);
+        boolean failed = response.metadata() != null && "error".equals(response.metadata().status());
+        APIGatewayProxyResponseEvent result = respond(failed ? 500 : 200, response);
+        Map<String, String> headers = new HashMap<>(JSON_HEADERS);
+        headers.put("X-TrackingId", context.trackingId());
+        return result.withHeaders(headers);
+    }
+
+    /**
+     * Same caller headers the servlet controller reads; API Gateway may deliver them in any case
+     */
+    private static InferenceContext inferenceContext(APIGatewayProxyRequestEvent event) {
+        Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (event.getHeaders() != null) {
+            headers.putAll(event.getHeaders());
+        }
+        return InferenceContext.of(
+                headers.get("X-ClientName"),
+                headers.get("X-ClientSessionId"),
+                headers.get("X-TrackingId"),
+                headers.get("X-SubmitDateTime"),
+                headers.get("X-UserId"),
+                headers.get("X-UserRole"));
+    }
+
+    private APIGatewayProxyResponseEvent indexDocument(String body, String path) throws Exception {
+        long startTime = System.currentTimeMillis();
+        IndexDocumentRequest request = indexRequestReader.readValue(body);
+        APIGatewayProxyResponseEvent invalid = validate(request, path);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        try {
+            String documentId = documentService.indexDocument(request.content(), request.metadata());
+            return respond(200, IndexDocumentResponse.success(documentId, System.currentTimeMillis() - startTime));
+        } catch (Exception e) {
+            logger.error("Error indexing document", e);
+            return respond(500, IndexDocumentResponse.error(
+                    "Failed to index document", System.currentTimeMillis() - startTime));
+        }
+    }
+
+    private APIGatewayProxyResponseEvent indexDocumentsBatch(String body, String path) throws Exception {
+        long startTime = System.currentTimeMillis();
+        BatchIndexRequest request = batchIndexRequestReader.readValue(body);
+        APIGatewayProxyResponseEvent invalid = validate(request, path);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        List<String> documentIds = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (DocumentDto doc : request.documents()) {
+            try {
+                documentIds.add(documentService.indexDocument(doc.content(), doc.metadata()));
+            } catch (Exception e) {
+                String documentId = doc.id() != null ? doc.id() : "unknown";
+                logger.error("Error indexing document {}", documentId, e);
+                errors.add("Failed to index document " + documentId);
+            }
+        }
+
+        long processingTime = System.currentTimeMillis() - startTime;
+        int total = request.documents().size();
+        return respond(200, errors.isEmpty()
+                ? BatchIndexResponse.success(total, documentIds, processingTime)
+                : BatchIndexResponse.partial(total, documentIds.size(), documentIds, errors, processingTime));
+    }
+
+    private APIGatewayProxyResponseEvent deleteDocuments(String body, String path) throws Exception {
+        DeleteDocumentsRequest request = deleteRequestReader.readValue(body);
+        APIGatewayProxyResponseEvent invalid = validate(request, path);
+        if (invalid != null) {
+            return invalid;
+        }
+        return deleteDocuments(request.documentIds());
+    }
+
+    private APIGatewayProxyResponseEvent deleteDocuments(List<String> documentIds) throws Exception {
+        long startTime = System.currentTimeMillis();
+        List<String> errors = new ArrayList<>();
+        for (String documentId : documentIds) {
+            try {
+                documentService.deleteDocument(documentId);
+            } catch (Exception e) {
+                logger.error("Error deleting document {}", documentId, e);
+                errors.add("Failed to delete document " + documentId);
+            }
+        }
+
+        long processingTime = System.currentTimeMillis() - startTime;
+        int total = documentIds.size();
+        return respond(errors.isEmpty() ? 200 : 500, errors.isEmpty()
+                ? DeleteDocumentsResponse.success(total, processingTime)
+                : DeleteDocumentsResponse.partial(total, total - errors.size(), errors, processingTime));
+    }
+
+    private <T> APIGatewayProxyResponseEvent validate(T request, String path) throws Exception {
+        if (request == null) {
+            return error(400, "Bad Request", "Request body is required", path);
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+
+        Map<String, String> validationErrors = violations.stream().collect(Collectors.toMap(
+                violation -> violation.getPropertyPath().toString(),
+                ConstraintViolation::getMessage,
+                (first, second) -> first,
+                HashMap::new));
+        return respond(400, ErrorResponse.withValidationErrors(
+                400, "Bad Request", "Request validation failed", path, validationErrors));
+    }
+
+    private APIGatewayProxyResponseEvent error(int status, String error, String message, String path) {
+        try {
+            return respond(status, ErrorResponse.create(status, error, message, path));
+        } catch (JsonProcessingException e) {
+            return new APIGatewayProxyResponseEvent().withStatusCode(status).withHeaders(JSON_HEADERS);
+        }
+    }
+
+    private APIGatewayProxyResponseEvent respond(int status, Object body) throws JsonProcessingException {
+        return new APIGatewayProxyResponseEvent()
+                .withStatusCode(status)
+                .withHeaders(JSON_HEADERS)
+                .withBody(responseWriter.writeValueAsString(body));
+    }
+}
@@ -4,17 +4,23 @@ import dev.langchain4j.model.bedrock.BedrockAnthropicChatModel;
 import dev.langchain4j.model.bedrock.BedrockTitanEmbeddingModel;
 import dev.langchain4j.store.embedding.opensearch.OpenSearchEmbeddingStore;
 import org.opensearch.client.opensearch.OpenSearchClient;
-import org.opensearch.client.json.jackson.JacksonJsonpMapper;
-import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.retry.RetryPolicy;
+import software.amazon.awssdk.http.SdkHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
 
 import java.net.URI;
+import java.nio.file.Path;
 import java.time.Duration;
 
 @Configuration
@@ -43,20 +49,100 @@ public class LangChain4jConfig {
     @Value("${opensearch.password:}")
     private String openSearchPassword;
 
+    @Value("${bedrock.endpoint-override:}")
+    private String bedrockEndpointOverride;
+
+    @Value("${bedrock.embedding.timeout-seconds:10}")
+    private long embeddingTimeoutSeconds;
+
+    @Value("${bedrock.claude.timeout-seconds:60}")
+    private long claudeTimeoutSeconds;
+
+    @Value("${bedrock.claude.fast-model:anthropic.claude-3-haiku-20240307-v1:0}")
+    private String fastClaudeModelId;
+
+    @Value("${bedrock.claude.fast-max-tokens:1024}")
+    private int fastClaudeMaxTokens;
+
+    @Value("${bedrock.api-call-timeout-seconds:90}")
+    private long bedrockApiCallTimeoutSeconds;
+
+    @Value("${bedrock.record-replay.mode:off}")
+    private String recordReplayMode;
+
+    @Value("${bedrock.record-replay.file:target/bedrock-recordings.jsonl.gz}")
+    private String recordReplayFile;
+
+    @Value("${bedrock.record-replay.replay-latency:true}")
+    private boolean replayRecordedLatency;
+
+    private final HttpTransportFactory httpTransportFactory;
+
+    public LangChain4jConfig(HttpTransportFactory httpTransportFactory) {
+        this.httpTransportFactory = httpTransportFactory;
+    }
+
+    /**
+     * Pooled HTTP client shared by every Bedrock model, optionally recording or replaying its exchanges
+     */
+    @Bean
+    public SdkHttpClient bedrockHttpClient() {
+        RecordReplayHttpClient.Mode mode = RecordReplayHttpClient.Mode.from(recordReplayMode);
+        if (mode == RecordReplayHttpClient.Mode.OFF) {
+            return httpTransportFactory.bedrockHttpClient();
+        }
+        return new RecordReplayHttpClient(httpTransportFactory.bedrockHttpClient(), mode,
+                Path.of(recordReplayFile), replayRecordedLatency);
+    }
+
+    /**
+     * Single Bedrock runtime client so that Titan and Claude calls reuse warm TLS connections
+     */
+    @Bean(destroyMethod = "close")
+    public BedrockRuntimeClient bedrockRuntimeClient(SdkHttpClient bedrockHttpClient) {
+        logger.info("Configuring shared Bedrock runtime client in region: {}", awsRegion);
+
+        var clientBuilder = BedrockRuntimeClient.builder()
+                .region(Region.of(awsRegion))
+                .credentialsProvider(credentialsProvider())
+                .httpClient(bedrockHttpClient)
+                .overrideConfiguration(httpTransportFactory.bedrockOverrideConfiguration("bedrock").toBuilder()
+                        // Retries are budgeted by BedrockResilience; SDK retries would multiply them
+                        .retryPolicy(RetryPolicy.none())
+                        .apiCallTimeout(Duration.ofSeconds(bedrockApiCallTimeoutSeconds))
+                        .build());
+
+        // Local stand-ins (startup and load benchmarks) replace the regional endpoint
+        if (!bedrockEndpointOverride.isEmpty()) {
+            logger.info("Overriding Bedrock runtime endpoint: {}", bedrockEndpointOverride);
+            clientBuilder.endpointOverride(URI.create(bedrockEndpointOverride));
+        }
+
+        return clientBuilder.build();
+    }
+
+    private AwsCredentialsProvider credentialsProvider() {
+        // Replayed requests are never sent, but the SDK still signs them
+        if (RecordReplayHttpClient.Mode.from(recordReplayMode) == RecordReplayHttpClient.Mode.REPLAY) {
+            return StaticCredentialsProvider.create(AwsBasicCredentials.create("replay", "replay"));
+        }
+        return DefaultCredentialsProvider.create();
+    }
+
     /**
      * Configure AWS Bedrock Titan Embedding Model
      */
     @Bean
-    public BedrockTitanEmbeddingModel titanEmbeddingModel() {
+    public BedrockTitanEmbeddingModel titanEmbeddingModel(BedrockRuntimeClient bedrockRuntimeClient) {
         logger.info("Configuring Bedrock Titan Embedding Model: {} in region: {}", 
                    embeddingModelId, awsRegion);
         
         return BedrockTitanEmbeddingModel.builder()
                 .modelId(embeddingModelId)
                 .region(awsRegion)
-                .credentialsProvider(DefaultCredentialsProvider.create())
-                .timeout(Duration.ofMinutes(2))
-                .maxRetries(3)
+                .client(bedrockRuntimeClient)
+                .timeout(Duration.ofSeconds(embeddingTimeoutSeconds))
+                .maxRetries(1) // single attempt, see BedrockResilience
                 .build();
     }
 
@@ -64,18 +150,37 @@ public class LangChain4jConfig {
      * Configure AWS Bedrock Anthropic Chat Model (Claude)
      */
     @Bean
-    public BedrockAnthropicChatModel anthropicChatModel() {
+    @Primary
+    public BedrockAnthropicChatModel anthropicChatModel(BedrockRuntimeClient bedrockRuntimeClient) {
         logger.info("Configuring Bedrock Anthropic Chat Model: {} in region: {}", 
                    claudeModelId, awsRegion);
         
         return BedrockAnthropicChatModel.builder()
                 .modelId(claudeModelId)
                 .region(awsRegion)
-                .credentialsProvider(DefaultCredentialsProvider.create())
+                .client(bedrockRuntimeClient)
                 .temperature(0.7)
                 .maxTokens(4000)
-                .timeout(Duration.ofMinutes(5))
-                .maxRetries(3)
+                .timeout(Duration.ofSeconds(claudeTimeoutSeconds))
+                .maxRetries(1) // single attempt, see BedrockResilience
+                .build();
+    }
+
+    /**
+     * Fast Claude tier (Haiku) for confidently retrieved, short-context queries
+     */
+    @Bean
+    public BedrockAnthropicChatModel fastAnthropicChatModel(BedrockRuntimeClient bedrockRuntimeClient) {
+        logger.info("Configuring fast-tier Bedrock Anthropic Chat Model: {}", fastClaudeModelId);
+
+        return BedrockAnthropicChatModel.builder()
+                .modelId(fastClaudeModelId)
+                .region(awsRegion)
+                .client(bedrockRuntimeClient)
+                .temperature(0.7)
+                .maxTokens(fastClaudeMaxTokens)
+                .timeout(Duration.ofSeconds(claudeTimeoutSeconds))
+                .maxRetries(1) // single attempt, see BedrockResilience
                 .build();
     }
 
@@ -86,18 +191,12 @@ public class LangChain4jConfig {
     public OpenSearchClient openSearchClient() {
         logger.info("Configuring OpenSearch client for endpoint: {}", openSearchEndpoint);
         
-        var transportBuilder = ApacheHttpClient5TransportBuilder
-                .builder(URI.create(openSearchEndpoint))
-                .setMapper(new JacksonJsonpMapper());
-
-        // Add authentication if credentials are provided
         if (!openSearchUsername.isEmpty() && !openSearchPassword.isEmpty()) {
             logger.info("Configuring OpenSearch with authentication for user: {}", openSearchUsername);
-            transportBuilder.setCredentials(openSearchUsername, openSearchPassword);
         }
 
-        var transport = transportBuilder.build();
-        return new OpenSearchClient(transport);
+        return httpTransportFactory.openSearchClient(
+                "opensearch", URI.create(openSearchEndpoint), openSearchUsername, openSearchPassword);
     }
 
     /**
@@ -105,22 +204,17 @@ public class LangChain4jConfig {
      */
     @Bean
     public OpenSearchEmbeddingStore openSearchEmbeddingStore(
-            BedrockTitanEmbeddingModel embeddingModel) {
+            BedrockTitanEmbeddingModel embeddingModel,
+            OpenSearchClient openSearchClient) {
         
         logger.info("Configuring OpenSearch Embedding Store with index: {}", indexName);
         
-        var storeBuilder = OpenSearchEmbeddingStore.builder()
-                .serverUrl(openSearchEndpoint)
+        // Reuse the pooled client instead of letting the store build its own transport
+        return OpenSearchEmbeddingStore.builder()
+                .openSearchClient(openSearchClient)
                 .indexName(indexName)
-                .dimension(1536); // Titan embedding dimension
-
-        // Add authentication if credentials are provided
-        if (!openSearchUsername.isEmpty() && !openSearchPassword.isEmpty()) {
-            storeBuilder.userName(openSearchUsername)
-                      .password(openSearchPassword);
-        }
-
-        return storeBuilder.build();
+                .dimension(1536) // Titan embedding dimension
+                .build();
     }
 
     /**
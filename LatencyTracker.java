@@ -0,0 +1,46 @@
+package com.example.ragapi.resilience;
+
+import java.util.Arrays;
+
+/**
+ * Recent call latencies in a fixed ring, with a percentile recomputed every
+ * {@code refreshEvery} samples so that reading it on the hot path is a volatile load.
+ */
+final class LatencyTracker {
+
+    private final long[] samples;
+    private final double percentile;
+    private final int refreshEvery;
+
+    private int count;
+    private int next;
+    private int sinceRefresh;
+    private volatile long percentileNanos;
+
+    LatencyTracker(int windowSize, double percentile, int refreshEvery) {
+        this.samples = new long[windowSize];
+        this.percentile = percentile;
+        this.refreshEvery = refreshEvery;
+    }
+
+    synchronized void record(long nanos) {
+        samples[next] = nanos;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+        if (++sinceRefresh >= refreshEvery) {
+            sinceRefresh = 0;
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            percentileNanos = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+        }
+    }
+
+    /**
+     * Latency at the configured percentile, or 0 until enough samples have been seen
+     */
+    long percentileNanos() {
+        return percentileNanos;
+    }
+}
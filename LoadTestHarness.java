@@ -0,0 +1,298 @@
+package com.example.ragapi.perf;
+
+import org.opensearch.testcontainers.OpensearchContainer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testcontainers.utility.DockerImageName;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+/**
+ * End-to-end load test of the service against local stand-ins.
+ *
+ * Starts a {@link BedrockStandIn} with production-like latency and quotas, an OpenSearch
+ * test container, and the service itself as a child JVM sized like one pod. After seeding
+ * the index it steps through target query rates, driving {@code /api/v1/rag/query} and
+ * {@code /api/v1/documents/index/batch} concurrently with an {@link OpenLoopLoadGenerator},
+ * and reports coordinated-omission-corrected percentiles per step. The first step whose
+ * throughput falls short of its target or whose p99 breaks the SLO is the pod's
+ * saturation point.
+ *
+ * Questions are drawn from a pool of distinct variants and the service's embedding,
+ * retrieval and fast-path caches are off by default, so each step measures the full
+ * pipeline rather than cache hits; run with {@code -Dloadtest.caches=true} to measure
+ * with the caches at the hit rate the question pool produces. Usage:
+ * <pre>
+ *   java -jar target/rag-api-load-test.jar [queryRates] [stepSeconds] [artifact]
+ * </pre>
+ * Tuning is done with system properties, e.g. {@code -Dloadtest.pod.cpus=2},
+ * {@code -Dloadtest.chat.median-ms=1800} or {@code -Dloadtest.slo.p99-ms=8000}.
+ */
+public class LoadTestHarness {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadTestHarness.class);
+
+    private static final String DEFAULT_JAR = "target/rag-api-langchain4j-1.0.0-aws.jar";
+    private static final String OPENSEARCH_IMAGE = "opensearchproject/opensearch:2.11.1";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+    private static final Path REPORT_DIR = Path.of("target", "load-test");
+
+    private static final String[] QUESTION_TEMPLATES = {
+            "What does the plan cover for %s %s?",
+            "What is the cost of %s %s?",
+            "Is %s covered %s?",
+            "How much do I pay for %s %s?",
+            "Does %s count toward the deductible %s?",
+            "Are there limits on %s %s?"
+    };
+    private static final String[] QUALIFIERS = {"for an employee", "for a spouse", "for a dependent child",
+            "in network", "out of network", "under the PPO plan", "under the HMO plan", "this plan year"};
+    private static final String[] TOPICS = {"deductible", "copayment", "network", "prescription",
+            "preventive", "specialist", "dental", "vision", "urgent care", "out-of-pocket maximum"};
+
+    public static void main(String[] args) throws Exception {
+        double[] queryRates = Arrays.stream((args.length > 0 ? args[0] : "2,5,10,20,40").split(","))
+                .mapToDouble(Double::parseDouble).toArray();
+        Duration step = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 60);
+        String artifact = args.length > 2 ? args[2] : DEFAULT_JAR;
+
+        double indexRatio = doubleProperty("loadtest.index.ratio", 0.05);
+        int documentsPerBatch = Integer.getInteger("loadtest.index.batch-size", 10);
+        double sloP99Ms = doubleProperty("loadtest.slo.p99-ms", 8000);
+        int distinctQuestions = Integer.getInteger("loadtest.query.distinct", 480);
+
+        BedrockStandIn.Behavior embedding = new BedrockStandIn.Behavior(
+                doubleProperty("loadtest.embed.median-ms", 40),
+                doubleProperty("loadtest.embed.p99-ms", 180),
+                doubleProperty("loadtest.embed.max-rps", 300));
+        BedrockStandIn.Behavior chat = new BedrockStandIn.Behavior(
+                doubleProperty("loadtest.chat.median-ms", 1800),
+                doubleProperty("loadtest.chat.p99-ms", 6000),
+                doubleProperty("loadtest.chat.max-rps", 25));
+
+        Files.createDirectories(REPORT_DIR);
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        OpenLoopLoadGenerator generator = new OpenLoopLoadGenerator(http, Duration.ofSeconds(60));
+
+        try (BedrockStandIn bedrock = new BedrockStandIn(0, 1536, embedding, chat).start();
+             OpensearchContainer<?> opensearch = new OpensearchContainer<>(DockerImageName.parse(OPENSEARCH_IMAGE))) {
+            opensearch.start();
+
+            int port = freePort();
+            String baseUrl = "http://localhost:" + port;
+            Process service = new ProcessBuilder(command(artifact, port, bedrock.endpoint(), opensearch.getHttpHostAddress()))
+                    .redirectErrorStream(true)
+                    .redirectOutput(REPORT_DIR.resolve("service.log").toFile())
+                    .start();
+            try {
+                awaitHealthy(http, baseUrl);
+                seed(http, baseUrl, documentsPerBatch);
+
+                List<StepResult> results = new ArrayList<>();
+                for (double queryRate : queryRates) {
+                    BedrockStandIn.Stats before = bedrock.stats();
+                    CompletableFuture<OpenLoopLoadGenerator.Result> indexing = CompletableFuture.supplyAsync(
+                            () -> generator.run("index@" + queryRate, Math.max(0.1, queryRate * indexRatio), step,
+                                    i -> post(baseUrl + "/api/v1/documents/index/batch",
+                                            batchBody("load-" + queryRate + "-" + i, documentsPerBatch, i))),
+                            Executors.newVirtualThreadPerTaskExecutor());
+                    OpenLoopLoadGenerator.Result query = generator.run("query@" + queryRate, queryRate, step,
+                            i -> post(baseUrl + "/api/v1/rag/query", queryBody(i, distinctQuestions))
+                                    .header("X-ClientName", "load-test"));
+                    StepResult result = new StepResult(query, indexing.join(), delta(before, bedrock.stats()));
+                    results.add(result);
+                    report(result, sloP99Ms);
+                }
+                summarize(results, sloP99Ms);
+            } finally {
+                service.destroy();
+                service.waitFor();
+            }
+        }
+    }
+
+    private static List<String> command(String artifact, int port, String bedrockEndpoint, String opensearchEndpoint) {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + "/bin/java");
+        // Size the JVM like one pod so the saturation point translates into a pod count
+        command.add("-XX:ActiveProcessorCount=" + Integer.getInteger("loadtest.pod.cpus", 2));
+        command.add("-Xmx" + System.getProperty("loadtest.pod.heap", "1g"));
+        command.addAll(Arrays.asList("-cp", artifact, "com.example.ragapi.RagApiApplication"));
+        command.add("--server.port=" + port);
+        command.add("--bedrock.endpoint-override=" + bedrockEndpoint);
+        command.add("--opensearch.endpoint=" + opensearchEndpoint);
+        command.add("--aws.region=us-east-1");
+        command.add("--inference-history.allow-in-memory-datasource=true");
+        // Admission limits are part of what is being measured, but the generator is a single client
+        command.add("--admission.client.rates={'load-test': 100000}");
+        if (!Boolean.getBoolean("loadtest.caches")) {
+            // Every query goes through embedding, retrieval and generation
+            command.add("--rag.cache.embeddings.max-size=0");
+            command.add("--rag.cache.retrievals.max-size=0");
+            command.add("--rag.warmup.enabled=false");
+            command.add("--rag.fast-path.enabled=false");
+        }
+        return command;
+    }
+
+    private static void awaitHealthy(HttpClient http, String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/v1/rag/health"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(200);
+        }
+        throw new IllegalStateException("Service did not become healthy within " + STARTUP_TIMEOUT);
+    }
+
+    private static void seed(HttpClient http, String baseUrl, int documentsPerBatch) throws Exception {
+        int batches = Integer.getInteger("loadtest.seed.batches", 20);
+        for (int i = 0; i < batches; i++) {
+            HttpResponse<String> response = http.send(
+                    post(baseUrl + "/api/v1/documents/index/batch", batchBody("seed-" + i, documentsPerBatch, i))
+                            .timeout(Duration.ofSeconds(60)).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Seeding failed with " + response.statusCode() + ": " + response.body());
+            }
+        }
+        logger.info("Seeded {} documents", batches * documentsPerBatch);
+    }
+
+    private static HttpRequest.Builder post(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body));
+    }
+
+    private static String queryBody(long sequence, int distinctQuestions) {
+        return "{\"question\":\"" + question((int) (sequence % Math.max(1, distinctQuestions)))
+                + "\",\"max_results\":5,\"threshold\":0.0}";
+    }
+
+    /**
+     * The n-th question variant; variants only repeat after templates x topics x qualifiers
+     */
+    private static String question(int n) {
+        String template = QUESTION_TEMPLATES[n % QUESTION_TEMPLATES.length];
+        String topic = TOPICS[(n / QUESTION_TEMPLATES.length) % TOPICS.length];
+        String qualifier = QUALIFIERS[(n / (QUESTION_TEMPLATES.length * TOPICS.length)) % QUALIFIERS.length];
+        return template.formatted(topic, qualifier);
+    }
+
+    private static String batchBody(String prefix, int documents, long sequence) {
+        StringBuilder body = new StringBuilder("{\"documents\":[");
+        for (int d = 0; d < documents; d++) {
+            String topic = TOPICS[(int) ((sequence + d) % TOPICS.length)];
+            body.append(d > 0 ? "," : "")
+                    .append("{\"id\":\"").append(prefix).append('-').append(d).append("\",")
+                    .append("\"content\":\"").append(documentText(topic)).append("\",")
+                    .append("\"metadata\":{\"title\":\"Benefits summary: ").append(topic)
+                    .append("\",\"source\":\"load-test\"}}");
+        }
+        return body.append("]}").toString();
+    }
+
+    private static String documentText(String topic) {
+        // About 3000 characters, so each document produces several chunks
+        String sentence = "The plan's " + topic + " terms apply to in-network and out-of-network care as described "
+                + "in the summary of benefits and coverage for this policy year. ";
+        return sentence.repeat(Math.max(1, 3000 / sentence.length()));
+    }
+
+    private static BedrockStandIn.Stats delta(BedrockStandIn.Stats before, BedrockStandIn.Stats after) {
+        return new BedrockStandIn.Stats(
+                after.embeddingServed() - before.embeddingServed(),
+                after.embeddingThrottled() - before.embeddingThrottled(),
+                after.chatServed() - before.chatServed(),
+                after.chatThrottled() - before.chatThrottled());
+    }
+
+    private static void report(StepResult step, double sloP99Ms) throws IOException {
+        for (OpenLoopLoadGenerator.Result result : List.of(step.query(), step.indexing())) {
+            logger.info("[{}] target={}/s achieved={}/s ok={} rejected={} failed={} | corrected p50={}ms p99={}ms "
+                            + "p99.9={}ms max={}ms | uncorrected p99={}ms | max send lag={}ms",
+                    result.name(), fmt(result.targetRate()), fmt(result.achievedRate()),
+                    result.succeeded(), result.rejected(), result.failed(),
+                    fmt(result.correctedMillis(50)), fmt(result.correctedMillis(99)),
+                    fmt(result.correctedMillis(99.9)), fmt(result.corrected().getMaxValue() / 1000.0),
+                    fmt(result.uncorrectedMillis(99)), fmt(result.maxSendLagNanos() / 1e6));
+
+            // .hgrm files can be plotted with the HdrHistogram percentile plotter
+            File file = REPORT_DIR.resolve(result.name().replace('@', '-') + ".hgrm").toFile();
+            try (PrintStream out = new PrintStream(file)) {
+                result.corrected().outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        BedrockStandIn.Stats bedrock = step.bedrock();
+        logger.info("[query@{}] Bedrock embeddings served={} throttled={}, chat served={} throttled={}, SLO {}",
+                fmt(step.query().targetRate()), bedrock.embeddingServed(), bedrock.embeddingThrottled(),
+                bedrock.chatServed(), bedrock.chatThrottled(), step.saturated(sloP99Ms) ? "MISSED" : "met");
+    }
+
+    private static void summarize(List<StepResult> results, double sloP99Ms) {
+        StepResult lastHealthy = null;
+        for (StepResult result : results) {
+            if (result.saturated(sloP99Ms)) {
+                logger.info("Saturation at {} queries/s (last healthy step: {})", fmt(result.query().targetRate()),
+                        lastHealthy != null ? fmt(lastHealthy.query().targetRate()) + "/s" : "none");
+                return;
+            }
+            lastHealthy = result;
+        }
+        logger.info("No saturation up to {} queries/s; raise the rates to find the limit",
+                fmt(results.get(results.size() - 1).query().targetRate()));
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    private static String fmt(double value) {
+        return String.format("%.1f", value);
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Query and indexing results of one rate step, with the Bedrock traffic it caused
+     */
+    private record StepResult(OpenLoopLoadGenerator.Result query, OpenLoopLoadGenerator.Result indexing,
+                              BedrockStandIn.Stats bedrock) {
+
+        boolean saturated(double sloP99Ms) {
+            return query.achievedRate() < query.targetRate() * 0.95 || query.correctedMillis(99) > sloP99Ms;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.ragapi.service;
+
+import com.example.ragapi.model.ConversationTurn;
+import com.example.ragapi.model.RetrievedDocument;
+import dev.langchain4j.model.bedrock.BedrockAnthropicChatModel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Picks the Claude tier for a query from what retrieval already knows.
+ *
+ * Under the {@code confidence} policy a query goes to the fast tier only when retrieval
+ * is confident (high average and top score), the context is short and the question is
+ * not a deep follow-up; everything else, including close calls between the top two
+ * chunks, is escalated to the strong tier. {@code strong} and {@code fast} pin every
+ * query to one tier.
+ */
+@Service
+public class ModelRouter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ModelRouter.class);
+
+    private final Route strong;
+    private final Route fast;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> decisions = new ConcurrentHashMap<>();
+
+    @Value("${rag.routing.policy:confidence}")
+    private String policy;
+
+    @Value("${rag.routing.fast.min-confidence:0.80}")
+    private double minConfidence;
+
+    @Value("${rag.routing.fast.min-top-score:0.85}")
+    private double minTopScore;
+
+    @Value("${rag.routing.fast.min-score-margin:0.03}")
+    private double minScoreMargin;
+
+    @Value("${rag.routing.fast.max-context-chars:6000}")
+    private int maxContextChars;
+
+    @Value("${rag.routing.fast.max-question-chars:300}")
+    private int maxQuestionChars;
+
+    @Value("${rag.routing.fast.max-earlier-turns:2}")
+    private int maxEarlierTurns;
+
+    public ModelRouter(
+            @Qualifier("anthropicChatModel") BedrockAnthropicChatModel strongModel,
+            @Qualifier("fastAnthropicChatModel") BedrockAnthropicChatModel fastModel,
+            @Value("${bedrock.claude.model:anthropic.claude-3-sonnet-20240229-v1:0}") String strongModelId,
+            @Value("${bedrock.claude.fast-model:anthropic.claude-3-haiku-20240307-v1:0}") String fastModelId,
+            MeterRegistry meterRegistry) {
+        this.strong = new Route("strong", strongModelId, strongModel, "default");
+        this.fast = new Route("fast", fastModelId, fastModel, "default");
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Choose the tier for a query whose documents have already been retrieved
+     */
+    public Route route(String question, List<RetrievedDocument> retrievedDocs,
+                       List<ConversationTurn> earlierTurns, double confidence) {
+        Route route = switch (policy) {
+            case "strong" -> strong.because("policy");
+            case "fast" -> fast.because("policy");
+            default -> byConfidence(question, retrievedDocs, earlierTurns, confidence);
+        };
+
+        decisions.computeIfAbsent(route.tier() + "|" + route.reason(), key -> Counter.builder("rag.routing.decisions")
+                        .tag("tier", route.tier())
+                        .tag("reason", route.reason())
+                        .register(meterRegistry))
+                .increment();
+        logger.debug("Routed query to {} tier ({}): confidence={}", route.tier(), route.reason(), confidence);
+        return route;
+    }
+
+    private Route byConfidence(String question, List<RetrievedDocument> retrievedDocs,
+                               List<ConversationTurn> earlierTurns, double confidence) {
+        if (retrievedDocs.isEmpty() || confidence < minConfidence) {
+            return strong.because("low_confidence");
+        }
+        double topScore = retrievedDocs.get(0).score();
+        if (topScore < minTopScore) {
+            return strong.because("low_top_score");
+        }
+        // Two near-equal top chunks from different documents usually means the answer needs reconciling
+        if (retrievedDocs.size() > 1
+                && topScore - retrievedDocs.get(1).score() < minScoreMargin
+                && !sameDocument(retrievedDocs.get(0), retrievedDocs.get(1))) {
+            return strong.because("ambiguous");
+        }
+        if (question.length() > maxQuestionChars) {
+            return strong.because("long_question");
+        }
+        if (earlierTurns.size() > maxEarlierTurns) {
+            return strong.because("long_conversation");
+        }
+        int contextChars = retrievedDocs.stream().mapToInt(doc -> doc.content().length()).sum();
+        if (contextChars > maxContextChars) {
+            return strong.because("long_context");
+        }
+        return fast.because("confident");
+    }
+
+    private static boolean sameDocument(RetrievedDocument first, RetrievedDocument second) {
+        if (first.metadata() == null || second.metadata() == null) {
+            return false;
+        }
+        Object documentId = first.metadata().get("document_id");
+        return documentId != null && documentId.equals(second.metadata().get("document_id"));
+    }
+
+    /**
+     * Chosen tier, its model and why it was chosen
+     */
+    public record Route(String tier, String modelId, BedrockAnthropicChatModel chatModel, String reason) {
+
+        Route because(String newReason) {
+            return new Route(tier, modelId, chatModel, newReason);
+        }
+    }
+}
@@ -1,15 +1,22 @@
 package com.example.ragapi.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.DecimalMax;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 // ============= REQUEST/RESPONSE DTOs =============
 
@@ -30,7 +37,16 @@ public record QueryRequest(
     
     @DecimalMin(value = "0.0", message = "Threshold must be between 0.0 and 1.0")
     @DecimalMax(value = "1.0", message = "Threshold must be between 0.0 and 1.0")
-    Double threshold
+    Double threshold,
+    
+    @Size(max = 255, message = "Conversation ID must be less than 255 characters")
+    String conversationId,
+    
+    @Size(max = 20, message = "Maximum 20 coverage package codes allowed")
+    List<String> coveragePackageCodes,
+    
+    @Size(max = 20, message = "State code must be less than 20 characters")
+    String stateCode
 ) {
     public QueryRequest {
         if (maxResults == null) {
@@ -60,17 +76,35 @@ public record QueryResponse(
 ) {
     public static QueryResponse success(String answer, List<RetrievedDocument> sources, 
                                       double confidence, long processingTime) {
+        return success(answer, sources, confidence, processingTime, null);
+    }
+    
+    public static QueryResponse success(String answer, List<RetrievedDocument> sources, 
+                                      double confidence, long processingTime, String modelId) {
+        return success(answer, sources, confidence, processingTime, modelId, null);
+    }
+    
+    public static QueryResponse success(String answer, List<RetrievedDocument> sources, 
+                                      double confidence, long processingTime, String modelId,
+                                      TokenCounts tokens) {
         return new QueryResponse(answer, sources, confidence, processingTime, 
-            new QueryMetadata(sources.size(), "success", null));
+            new QueryMetadata(sources.size(), "success", null, modelId, null, tokens));
     }
     
     public static QueryResponse error(String errorMessage, long processingTime) {
         return new QueryResponse(
             "I encountered an error while processing your question. Please try again later.",
             List.of(), 0.0, processingTime,
-            new QueryMetadata(0, "error", errorMessage)
+            new QueryMetadata(0, "error", errorMessage, null, null, null)
         );
     }
+    
+    public QueryResponse withTrace(RequestTrace trace) {
+        QueryMetadata current = metadata != null ? metadata : new QueryMetadata(sources.size(), "success", null, null, null, null);
+        return new QueryResponse(answer, sources, confidence, processingTimeMs, new QueryMetadata(
+            current.documentsFound(), current.status(), current.errorMessage(), current.modelId(), trace,
+            current.tokens()));
+    }
 }
 
 /**
@@ -79,9 +113,75 @@ public record QueryResponse(
 public record QueryMetadata(
     int documentsFound,
     String status,
-    String errorMessage
+    String errorMessage,
+    String modelId,
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    RequestTrace trace,
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    TokenCounts tokens
+) {}
+
+/**
+ * Token usage Bedrock reported for the generation call
+ */
+public record TokenCounts(
+    Integer promptTokens,
+    Integer completionTokens,
+    Integer totalTokens
 ) {}
 
+/**
+ * Stage timing breakdown of one request, returned when the caller asks for it
+ */
+public record RequestTrace(
+    String trackingId,
+    long startedAtEpochMs,
+    List<StageTiming> stages
+) {}
+
+/**
+ * One pipeline stage relative to the start of the request; repeated calls are summed
+ */
+public record StageTiming(
+    String stage,
+    long startOffsetMicros,
+    long endOffsetMicros,
+    long durationMicros,
+    int calls
+) {}
+
+/**
+ * Caller identity and tracing headers of an inference request
+ */
+public record InferenceContext(
+    String clientName,
+    String clientSessionId,
+    String trackingId,
+    OffsetDateTime submitDateTime,
+    String userId,
+    String userRole
+) {
+    public static final String UNKNOWN_CLIENT = "unknown";
+
+    public static InferenceContext of(String clientName, String clientSessionId, String trackingId,
+                                      String submitDateTime, String userId, String userRole) {
+        OffsetDateTime submitted;
+        try {
+            submitted = submitDateTime != null ? OffsetDateTime.parse(submitDateTime) : OffsetDateTime.now();
+        } catch (DateTimeParseException e) {
+            submitted = OffsetDateTime.now();
+        }
+        return new InferenceContext(
+            clientName != null ? clientName : UNKNOWN_CLIENT,
+            clientSessionId,
+            trackingId != null ? trackingId : UUID.randomUUID().toString(),
+            submitted,
+            userId,
+            userRole
+        );
+    }
+}
+
 // ============= SEARCH MODELS =============
 
 /**
@@ -242,6 +342,26 @@ public record BatchIndexResponse(
     }
 }
 
+/**
+ * Outcome of one document of an NDJSON ingestion stream; sequence is its zero-based position in the input
+ */
+public record StreamIndexResult(
+    int sequence,
+    String id,
+    String documentId,
+    String status,
+    String error,
+    long processingTimeMs
+) {
+    public static StreamIndexResult success(int sequence, String id, String documentId, long processingTime) {
+        return new StreamIndexResult(sequence, id, documentId, "success", null, processingTime);
+    }
+    
+    public static StreamIndexResult failure(int sequence, String id, String error, long processingTime) {
+        return new StreamIndexResult(sequence, id, null, "error", error, processingTime);
+    }
+}
+
 /**
  * Request for deleting documents
  */
@@ -310,6 +430,87 @@ public record VectorSearchResponse(
     long searchTimeMs
 ) {}
 
+// ============= HISTORY MODELS =============
+
+/**
+ * One recorded inference turn
+ */
+public record HistoryEntry(
+    UUID id,
+    String trackingId,
+    String conversationId,
+    String messageId,
+    OffsetDateTime submitDateTime,
+    String clientName,
+    String userQuery,
+    String responseText,
+    String conversationModelName,
+    BigDecimal inferenceConfidenceScore,
+    Integer totalTokens,
+    Integer ragChunksRetrieved,
+    Double ragRetrievalScore
+) {}
+
+/**
+ * Question and answer of an earlier turn in a conversation
+ */
+public record ConversationTurn(
+    String question,
+    String answer
+) {}
+
+/**
+ * Page of history entries; pass nextCursor back to continue, null when there are no more
+ */
+public record HistoryPage(
+    List<HistoryEntry> items,
+    String nextCursor
+) {}
+
+// ============= FAST PATH MODELS =============
+
+/**
+ * Curated question and approved answer; empty code lists mean the answer applies everywhere
+ */
+public record FaqEntryDto(
+    String id,
+    
+    @NotBlank(message = "Question cannot be blank")
+    @Size(max = 1000, message = "Question must be less than 1000 characters")
+    String question,
+    
+    @NotBlank(message = "Answer cannot be blank")
+    String answer,
+    
+    List<String> coveragePackageCodes,
+    
+    List<String> stateCodes,
+    
+    // Optional precomputed question embedding; generated on load when absent
+    List<Float> embedding
+) {}
+
+/**
+ * Bulk load of curated answers
+ */
+public record FaqLoadRequest(
+    @NotNull(message = "Entries are required")
+    @Size(min = 1, max = 5000, message = "Must provide between 1 and 5000 entries")
+    List<@Valid FaqEntryDto> entries,
+    
+    // Replace the whole store instead of upserting by ID
+    boolean replace
+) {}
+
+/**
+ * Result of a bulk load
+ */
+public record FaqLoadResponse(
+    int loaded,
+    int totalEntries,
+    long processingTimeMs
+) {}
+
 // ============= SYSTEM MODELS =============
 
 /**
@@ -0,0 +1,95 @@
+package com.example.ragapi.config;
+
+import com.example.ragapi.model.*;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+import java.util.List;
+
+/**
+ * Reachability metadata for the native-image build.
+ *
+ * Spring AOT covers our own beans, but Jackson binds the API records reflectively and the
+ * LangChain4j Bedrock / OpenSearch integrations deserialize their wire types with Gson and
+ * Jackson, which native-image cannot discover on its own.
+ */
+public class NativeRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final MemberCategory[] BINDING = {
+            MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+            MemberCategory.INVOKE_PUBLIC_METHODS,
+            MemberCategory.DECLARED_FIELDS
+    };
+
+    /**
+     * API records serialized by Jackson
+     */
+    private static final List<Class<?>> API_TYPES = List.of(
+            QueryRequest.class,
+            QueryResponse.class,
+            QueryMetadata.class,
+            RequestTrace.class,
+            StageTiming.class,
+            SearchFilter.class,
+            FilterOperator.class,
+            RetrievedDocument.class,
+            IndexDocumentRequest.class,
+            IndexDocumentResponse.class,
+            DocumentDto.class,
+            BatchIndexRequest.class,
+            BatchIndexResponse.class,
+            DeleteDocumentsRequest.class,
+            DeleteDocumentsResponse.class,
+            VectorSearchRequest.class,
+            VectorSearchResponse.class,
+            HealthResponse.class,
+            ComponentHealth.class,
+            ApiInfoResponse.class,
+            ErrorResponse.class,
+            HistoryEntry.class,
+            HistoryPage.class,
+            FaqEntryDto.class,
+            FaqLoadRequest.class,
+            FaqLoadResponse.class
+    );
+
+    /**
+     * LangChain4j request / response payloads bound reflectively
+     */
+    private static final List<String> LANGCHAIN4J_TYPES = List.of(
+            "dev.langchain4j.model.bedrock.BedrockTitanEmbeddingResponse",
+            "dev.langchain4j.model.bedrock.BedrockAnthropicCompletionChatModelResponse",
+            "dev.langchain4j.model.bedrock.BedrockAnthropicMessageChatModelResponse",
+            "dev.langchain4j.model.bedrock.BedrockAnthropicContent",
+            "dev.langchain4j.model.bedrock.BedrockAnthropicMessage",
+            "dev.langchain4j.model.bedrock.BedrockAnthropicUsage",
+            "dev.langchain4j.store.embedding.opensearch.Document"
+    );
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        API_TYPES.forEach(type -> hints.reflection().registerType(type, BINDING));
+
+        LANGCHAIN4J_TYPES.forEach(type -> hints.reflection().registerTypeIfPresent(classLoader, type, BINDING));
+
+        hints.reflection().registerType(LangChain4jConfig.EmbeddingModelConfig.class, BINDING);
+        hints.reflection().registerType(
+                TypeReference.of("com.example.ragapi.service.EmbeddingService$EmbeddingModelInfo"), BINDING);
+        hints.reflection().registerType(
+                TypeReference.of("com.example.ragapi.service.VectorSearchService$VectorStoreStats"), BINDING);
+        hints.reflection().registerType(
+                TypeReference.of("com.example.ragapi.service.DocumentService$DocumentStats"), BINDING);
+        hints.reflection().registerType(
+                TypeReference.of("com.example.ragapi.service.VectorSearchService$ProjectedSource"), BINDING);
+
+        // Glossary behind multi-query retrieval variants
+        hints.resources().registerPattern("benefits_glossary.txt");
+
+        // AWS SDK endpoint rules, service metadata and interceptor registrations
+        hints.resources().registerPattern("software/amazon/awssdk/**/*.json");
+        hints.resources().registerPattern("software/amazon/awssdk/**/execution.interceptors");
+        hints.resources().registerPattern("software/amazon/awssdk/global/handlers/execution.interceptors");
+    }
+}
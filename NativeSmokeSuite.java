@@ -0,0 +1,190 @@
+package com.example.ragapi.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the native executable against local stand-ins and checks the query service end to end.
+ *
+ * Bedrock is served by {@link BedrockStandIn}; OpenSearch is expected on
+ * {@code http://localhost:9200}. Throws when any check fails, so it fails
+ * {@code mvn -Pnative verify}:
+ * <pre>
+ *   java -cp target/classes:... com.example.ragapi.perf.NativeSmokeSuite target/rag-api-langchain4j [startupBudgetMs]
+ * </pre>
+ * Startup time is always reported; it only fails the suite when a budget above zero is given
+ * (in the build: {@code -Dnative.smoke.startup-budget-ms=...}), since it varies with the runner.
+ */
+public class NativeSmokeSuite {
+
+    private static final Logger logger = LoggerFactory.getLogger(NativeSmokeSuite.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String OPENSEARCH_URL = "http://localhost:9200";
+    private static final String INDEX_NAME = "native-smoke";
+
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+    private final List<String> failures = new ArrayList<>();
+    private final String baseUrl;
+
+    private NativeSmokeSuite(int port) {
+        this.baseUrl = "http://localhost:" + port;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String executable = args.length > 0 ? args[0] : "target/rag-api-langchain4j";
+        long startupBudgetMs = args.length > 1 ? Long.parseLong(args[1]) : 0;
+
+        int port = freePort();
+        NativeSmokeSuite suite = new NativeSmokeSuite(port);
+
+        try (BedrockStandIn bedrock = new BedrockStandIn(0, 1536).start()) {
+            long launchNanos = System.nanoTime();
+            Process process = new ProcessBuilder(
+                    executable,
+                    "--server.port=" + port,
+                    "--bedrock.endpoint-override=" + bedrock.endpoint(),
+                    "--opensearch.endpoint=" + OPENSEARCH_URL,
+                    "--opensearch.index.name=" + INDEX_NAME,
+                    "--aws.region=us-east-1",
+                    "--inference-history.allow-in-memory-datasource=true")
+                    .redirectErrorStream(true)
+                    .redirectOutput(new File("target/native-smoke.log"))
+                    .start();
+            try {
+                long startupMs = suite.awaitHealthy(launchNanos);
+                if (startupBudgetMs > 0) {
+                    logger.info("Native image healthy after {} ms (budget {} ms)", startupMs, startupBudgetMs);
+                    suite.check(startupMs <= startupBudgetMs,
+                            "startup took " + startupMs + " ms, budget is " + startupBudgetMs + " ms");
+                } else {
+                    logger.info("Native image healthy after {} ms", startupMs);
+                }
+
+                suite.checkIndexDocument();
+                suite.refreshIndex();
+                suite.checkQuery();
+                suite.checkInfo();
+
+                long rssKb = residentSetKb(process.pid());
+                logger.info("Native image resident set size: {} MB", rssKb / 1024);
+            } finally {
+                process.destroy();
+                process.waitFor();
+            }
+        }
+
+        if (!suite.failures.isEmpty()) {
+            suite.failures.forEach(failure -> logger.error("FAILED: {}", failure));
+            // Thrown rather than System.exit so exec:java reports a build failure instead of killing Maven
+            throw new IllegalStateException("Native smoke suite failed: " + String.join("; ", suite.failures));
+        }
+        logger.info("Native smoke suite passed");
+    }
+
+    private long awaitHealthy(long launchNanos) throws Exception {
+        long deadline = launchNanos + Duration.ofSeconds(30).toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                if (get("/api/v1/rag/health").statusCode() == 200) {
+                    return (System.nanoTime() - launchNanos) / 1_000_000;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(2);
+        }
+        throw new IllegalStateException("Native image did not become healthy within 30s");
+    }
+
+    private void checkIndexDocument() throws Exception {
+        HttpResponse<String> response = post("/api/v1/documents/index",
+                "{\"content\":\"Dental cleanings are covered twice per plan year.\",\"metadata\":{\"title\":\"Dental\"}}");
+        check(response.statusCode() == 200, "index document returned " + response.statusCode());
+        JsonNode body = MAPPER.readTree(response.body());
+        check(body.hasNonNull("document_id"), "index response has no document_id: " + response.body());
+    }
+
+    /**
+     * Make the indexed document searchable now instead of after the next periodic refresh
+     */
+    private void refreshIndex() throws Exception {
+        HttpResponse<String> response = http.send(
+                HttpRequest.newBuilder(URI.create(OPENSEARCH_URL + "/" + INDEX_NAME + "/_refresh"))
+                        .timeout(Duration.ofSeconds(10))
+                        .POST(HttpRequest.BodyPublishers.noBody())
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+        check(response.statusCode() == 200, "index refresh returned " + response.statusCode());
+    }
+
+    private void checkQuery() throws Exception {
+        HttpResponse<String> response = post("/api/v1/rag/query",
+                "{\"question\":\"How often are dental cleanings covered?\",\"max_results\":3,\"threshold\":0.0}");
+        check(response.statusCode() == 200, "query returned " + response.statusCode());
+        JsonNode body = MAPPER.readTree(response.body());
+        check(!body.path("answer").asText().isEmpty(), "query response has no answer: " + response.body());
+        check("success".equals(body.path("metadata").path("status").asText()),
+                "query metadata status is not success: " + response.body());
+        check(!body.path("sources").isEmpty(), "query found no sources for the indexed document: " + response.body());
+    }
+
+    private void checkInfo() throws Exception {
+        HttpResponse<String> response = get("/api/v1/rag/info");
+        check(response.statusCode() == 200, "info returned " + response.statusCode());
+    }
+
+    private void check(boolean condition, String failure) {
+        if (!condition) {
+            failures.add(failure);
+        }
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> post(String path, String json) throws Exception {
+        return http.send(HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Content-Type", "application/json")
+                        .timeout(Duration.ofSeconds(30))
+                        .POST(HttpRequest.BodyPublishers.ofString(json))
+                        .build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static long residentSetKb(long pid) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/" + pid + "/status"))) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Cannot read resident set size for pid {}", pid);
+        }
+        return -1;
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.ragapi.perf;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongFunction;
+
+/**
+ * Open-loop HTTP load generator.
+ *
+ * Requests are scheduled at a fixed rate independent of how fast the service answers, so
+ * a slow service accumulates outstanding requests instead of slowing the generator down.
+ * Latency is measured from each request's intended send time rather than from when it was
+ * actually sent, which corrects for coordinated omission: a stall in the service (or in
+ * the generator) shows up as latency for every request that should have been sent during
+ * it. Service time measured from the actual send is kept alongside for comparison.
+ */
+public class OpenLoopLoadGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(OpenLoopLoadGenerator.class);
+
+    /** Track latencies from 1 microsecond up to 5 minutes with 3 significant digits */
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final HttpClient http;
+    private final Duration requestTimeout;
+
+    public OpenLoopLoadGenerator(HttpClient http, Duration requestTimeout) {
+        this.http = http;
+        this.requestTimeout = requestTimeout;
+    }
+
+    /**
+     * Send {@code ratePerSecond} requests per second for {@code duration}, then wait for stragglers
+     *
+     * @param requests builds the request with the given sequence number
+     */
+    public Result run(String name, double ratePerSecond, Duration duration, LongFunction<HttpRequest.Builder> requests) {
+        Histogram corrected = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        Histogram uncorrected = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        AtomicLong succeeded = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicLong maxSendLagNanos = new AtomicLong();
+
+        long intervalNanos = (long) (1_000_000_000L / ratePerSecond);
+        long total = (long) (ratePerSecond * duration.toNanos() / 1e9);
+        List<CompletableFuture<?>> inFlight = new ArrayList<>((int) Math.min(total, Integer.MAX_VALUE));
+
+        logger.info("[{}] sending {} requests at {}/s for {}s", name, total, ratePerSecond, duration.toSeconds());
+        long startNanos = System.nanoTime();
+        for (long i = 0; i < total; i++) {
+            long intendedNanos = startNanos + i * intervalNanos;
+            long waitNanos;
+            while ((waitNanos = intendedNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(waitNanos);
+            }
+
+            long sentNanos = System.nanoTime();
+            maxSendLagNanos.accumulateAndGet(sentNanos - intendedNanos, Math::max);
+            HttpRequest request = requests.apply(i).timeout(requestTimeout).build();
+            inFlight.add(http.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long doneNanos = System.nanoTime();
+                        corrected.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, (doneNanos - intendedNanos) / 1000));
+                        uncorrected.recordValue(Math.min(HIGHEST_TRACKABLE_MICROS, (doneNanos - sentNanos) / 1000));
+                        if (error != null) {
+                            failed.incrementAndGet();
+                        } else if (response.statusCode() == 429 || response.statusCode() == 503) {
+                            rejected.incrementAndGet();
+                        } else if (response.statusCode() >= 400) {
+                            failed.incrementAndGet();
+                        } else {
+                            succeeded.incrementAndGet();
+                        }
+                    }));
+        }
+        long sendWindowNanos = System.nanoTime() - startNanos;
+
+        CompletableFuture.allOf(inFlight.toArray(CompletableFuture[]::new))
+                .exceptionally(error -> null)
+                .join();
+
+        return new Result(name, ratePerSecond, total, succeeded.get(), rejected.get(), failed.get(),
+                sendWindowNanos, maxSendLagNanos.get(), corrected, uncorrected);
+    }
+
+    /**
+     * Outcome of one fixed-rate step; histograms are in microseconds
+     */
+    public record Result(String name, double targetRate, long sent, long succeeded, long rejected, long failed,
+                         long sendWindowNanos, long maxSendLagNanos, Histogram corrected, Histogram uncorrected) {
+
+        /** Successful responses per second over the send window */
+        public double achievedRate() {
+            return succeeded * 1e9 / sendWindowNanos;
+        }
+
+        public double correctedMillis(double percentile) {
+            return corrected.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        public double uncorrectedMillis(double percentile) {
+            return uncorrected.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
@@ -1,15 +1,11 @@
 package com.example.ragpoc.config;
 
-import org.apache.http.HttpHost;
-import org.apache.http.auth.AuthScope;
-import org.apache.http.auth.UsernamePasswordCredentials;
-import org.apache.http.client.CredentialsProvider;
-import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.opensearch.client.RestClient;
-import org.opensearch.client.RestClientBuilder;
-import org.opensearch.client.json.jackson.JacksonJsonpMapper;
+import com.example.common.http.PooledOpenSearchTransport;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.opensearch.client.opensearch.OpenSearchClient;
-import org.opensearch.client.transport.rest_client.RestClientTransport;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -28,36 +24,51 @@ public class OpenSearchConfig {
     @Value("${opensearch.password}")
     private String password;
 
-    @Bean
-    public OpenSearchClient openSearchClient() {
+    @Value("${http.transport.max-connections-total:200}")
+    private int maxConnectionsTotal;
+
+    @Value("${http.transport.max-connections-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${http.transport.connect-timeout-ms:2000}")
+    private long connectTimeoutMs;
+
+    @Value("${http.transport.socket-timeout-ms:30000}")
+    private long socketTimeoutMs;
+
+    @Value("${http.transport.connection-ttl-seconds:300}")
+    private long connectionTtlSeconds;
+
+    @Value("${http.transport.keep-alive-seconds:60}")
+    private long keepAliveSeconds;
+
+    @Value("${http.transport.validate-after-inactivity-ms:2000}")
+    private long validateAfterInactivityMs;
+
+    @Value("${http.transport.http2-enabled:true}")
+    private boolean http2Enabled;
+
+    @Value("${http.transport.compression-enabled:true}")
+    private boolean compressionEnabled;
+
+    /**
+     * Pooled transport shared by every request of the OpenSearch client, built like the query API's pools
+     */
+    @Bean(destroyMethod = "close")
+    public OpenSearchTransport openSearchTransport(ObjectProvider<MeterRegistry> meterRegistry) {
         try {
-            URI uri = URI.create(opensearchUrl);
-            
-            // Create credentials provider
-            CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-            credentialsProvider.setCredentials(
-                AuthScope.ANY,
-                new UsernamePasswordCredentials(username, password)
-            );
-
-            // Create the low-level client
-            RestClientBuilder builder = RestClient.builder(
-                new HttpHost(uri.getHost(), uri.getPort(), uri.getScheme())
-            ).setHttpClientConfigCallback(httpClientBuilder -> 
-                httpClientBuilder.setDefaultCredentialsProvider(credentialsProvider)
-            );
-
-            RestClient restClient = builder.build();
-
-            // Create the transport with a Jackson mapper
-            RestClientTransport transport = new RestClientTransport(
-                restClient, new JacksonJsonpMapper()
-            );
-
-            // Create the API client
-            return new OpenSearchClient(transport);
+            return PooledOpenSearchTransport.create("opensearch", URI.create(opensearchUrl), username, password,
+                    new PooledOpenSearchTransport.Settings(maxConnectionsTotal, maxConnectionsPerRoute,
+                            connectTimeoutMs, socketTimeoutMs, connectionTtlSeconds, keepAliveSeconds,
+                            validateAfterInactivityMs, http2Enabled, compressionEnabled),
+                    meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
         } catch (Exception e) {
             throw new RuntimeException("Failed to create OpenSearch client", e);
         }
     }
+
+    @Bean
+    public OpenSearchClient openSearchClient(OpenSearchTransport openSearchTransport) {
+        return new OpenSearchClient(openSearchTransport);
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.ragpoc.service;
 
+import com.example.ragpoc.model.ChunkHit;
 import com.example.ragpoc.model.DocumentChunk;
 import org.opensearch.client.opensearch.OpenSearchClient;
 import org.opensearch.client.opensearch._types.mapping.Property;
@@ -13,6 +14,7 @@ import org.opensearch.client.opensearch.core.IndexRequest;
 import org.opensearch.client.opensearch.core.SearchRequest;
 import org.opensearch.client.opensearch.core.SearchResponse;
 import org.opensearch.client.opensearch.core.search.Hit;
+import org.opensearch.client.opensearch.core.search.SourceConfig;
 import org.opensearch.client.opensearch._types.query_dsl.Query;
 import org.opensearch.client.opensearch._types.query_dsl.KnnQuery;
 import org.slf4j.Logger;
@@ -33,6 +35,9 @@ public class OpenSearchService {
 
     private static final Logger logger = LoggerFactory.getLogger(OpenSearchService.class);
 
+    /** Fields returned by {@link #searchChunkHits(List, int)} unless the caller asks for others */
+    public static final List<String> DEFAULT_HIT_FIELDS = List.of("content", "sourceFile", "chunkIndex", "headingPath");
+
     @Autowired
     private OpenSearchClient client;
 
@@ -63,6 +68,7 @@ public class OpenSearchService {
         properties.put("sourceFile", Property.of(p -> p.text(TextProperty.of(t -> t))));
         properties.put("chunkIndex", Property.of(p -> p.integer(IntegerNumberProperty.of(i -> i))));
         properties.put("timestamp", Property.of(p -> p.long_(LongNumberProperty.of(l -> l))));
+        properties.put("headingPath", Property.of(p -> p.text(TextProperty.of(t -> t))));
         properties.put("embedding", Property.of(p -> p.denseVector(DenseVectorProperty.of(d -> d.dims(768)))));
 
         CreateIndexRequest request = CreateIndexRequest.of(c -> c
@@ -104,21 +110,13 @@ public class OpenSearchService {
         logger.info("Successfully indexed {} document chunks", chunks.size());
     }
 
+    /**
+     * Most similar chunks without their embeddings, which are excluded from {@code _source}
+     */
     public List<DocumentChunk> searchSimilarChunks(List<Float> queryEmbedding, int size) {
         try {
-            KnnQuery knnQuery = KnnQuery.of(k -> k
-                .field("embedding")
-                .vector(queryEmbedding.toArray(new Float[0]))
-                .k(size)
-            );
-
-            SearchRequest request = SearchRequest.of(s -> s
-                .index(indexName)
-                .query(Query.of(q -> q.knn(knnQuery)))
-                .size(size)
-            );
-
-            SearchResponse<DocumentChunk> response = client.search(request, DocumentChunk.class);
+            SearchResponse<DocumentChunk> response = knnSearch(queryEmbedding, size,
+                    SourceConfig.of(src -> src.filter(f -> f.excludes("embedding"))));
             
             List<DocumentChunk> results = new ArrayList<>();
             for (Hit<DocumentChunk> hit : response.hits().hits()) {
@@ -136,4 +134,58 @@ public class OpenSearchService {
             throw new RuntimeException("Failed to search similar chunks", e);
         }
     }
+
+    /**
+     * Most similar chunks projected to content, source file, chunk index and score
+     */
+    public List<ChunkHit> searchChunkHits(List<Float> queryEmbedding, int size) {
+        return searchChunkHits(queryEmbedding, size, DEFAULT_HIT_FIELDS);
+    }
+
+    /**
+     * Most similar chunks with only the given {@code _source} fields fetched
+     */
+    public List<ChunkHit> searchChunkHits(List<Float> queryEmbedding, int size, List<String> fields) {
+        try {
+            SearchResponse<DocumentChunk> response = knnSearch(queryEmbedding, size,
+                    SourceConfig.of(src -> src.filter(f -> f.includes(fields).excludes("embedding"))));
+
+            List<ChunkHit> results = new ArrayList<>(response.hits().hits().size());
+            for (Hit<DocumentChunk> hit : response.hits().hits()) {
+                DocumentChunk chunk = hit.source();
+                results.add(new ChunkHit(
+                        hit.id(),
+                        chunk != null ? chunk.getContent() : null,
+                        chunk != null ? chunk.getSourceFile() : null,
+                        chunk != null && fields.contains("chunkIndex") ? chunk.getChunkIndex() : null,
+                        chunk != null ? chunk.getHeadingPath() : null,
+                        hit.score() != null ? hit.score() : 0.0));
+            }
+
+            logger.debug("Found {} similar chunk hits", results.size());
+            return results;
+
+        } catch (Exception e) {
+            logger.error("Failed to search chunk hits: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to search chunk hits", e);
+        }
+    }
+
+    private SearchResponse<DocumentChunk> knnSearch(List<Float> queryEmbedding, int size, SourceConfig source)
+            throws IOException {
+        KnnQuery knnQuery = KnnQuery.of(k -> k
+            .field("embedding")
+            .vector(queryEmbedding.toArray(new Float[0]))
+            .k(size)
+        );
+
+        SearchRequest request = SearchRequest.of(s -> s
+            .index(indexName)
+            .query(Query.of(q -> q.knn(knnQuery)))
+            .source(source)
+            .size(size)
+        );
+
+        return client.search(request, DocumentChunk.class);
+    }
 }
@@ -0,0 +1,7 @@
+package com.example.ragpoc.model;
+
+/**
+ * Outcome of processing one large PDF upload
+ */
+public record PdfIngestionResult(String filename, long bytes, int pages, int chunks, long processingTimeMs) {
+}
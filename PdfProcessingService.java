@@ -7,6 +7,15 @@ import dev.langchain4j.data.segment.TextSegment;
 import dev.langchain4j.model.embedding.EmbeddingModel;
 import dev.langchain4j.data.embedding.Embedding;
 import com.example.ragpoc.model.DocumentChunk;
+import com.example.ragpoc.model.PdfIngestionResult;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.RandomAccessRead;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.io.RandomAccessReadMemoryMappedFile;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -14,10 +23,15 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 public class PdfProcessingService {
@@ -33,10 +47,42 @@ public class PdfProcessingService {
     @Value("${rag.chunk-overlap}")
     private int chunkOverlap;
 
+    @Value("${rag.chunking.strategy:recursive}")
+    private String chunkingStrategy;
+
+    @Value("${rag.chunking.max-chunk-chars:1500}")
+    private int maxChunkChars;
+
+    @Value("${rag.chunking.min-chunk-chars:300}")
+    private int minChunkChars;
+
+    @Value("${rag.large-upload.max-bytes:524288000}")
+    private long largeUploadMaxBytes;
+
+    @Value("${rag.large-upload.spool-dir:${java.io.tmpdir}}")
+    private String spoolDir;
+
+    @Value("${rag.large-upload.pages-per-batch:20}")
+    private int pagesPerBatch;
+
+    @Value("${rag.large-upload.memory-mapped:true}")
+    private boolean memoryMapped;
+
     public List<DocumentChunk> processPdfFile(MultipartFile file) {
         try {
             logger.info("Processing PDF file: {}", file.getOriginalFilename());
-            
+
+            if (isStructural()) {
+                List<TextSegment> segments;
+                try (InputStream inputStream = file.getInputStream();
+                     PDDocument pdf = Loader.loadPDF(new RandomAccessReadBuffer(inputStream))) {
+                    segments = newStructuralChunker().chunk(pdf, 1, pdf.getNumberOfPages());
+                }
+                List<DocumentChunk> chunks = createEmbeddings(segments, file.getOriginalFilename(), 0);
+                logger.info("Successfully processed {} structural chunks from PDF", chunks.size());
+                return chunks;
+            }
+
             // Parse PDF document
             Document document = parseDocument(file);
             
@@ -44,7 +90,7 @@ public class PdfProcessingService {
             List<TextSegment> segments = splitDocument(document);
             
             // Create embeddings for each segment
-            List<DocumentChunk> chunks = createEmbeddings(segments, file.getOriginalFilename());
+            List<DocumentChunk> chunks = createEmbeddings(segments, file.getOriginalFilename(), 0);
             
             logger.info("Successfully processed {} chunks from PDF", chunks.size());
             return chunks;
@@ -55,6 +101,105 @@ public class PdfProcessingService {
         }
     }
 
+    /**
+     * Process a PDF of up to {@code rag.large-upload.max-bytes} with a small, fixed heap footprint.
+     *
+     * The upload is spooled to a temp file and opened through PDFBox random access (memory-mapped
+     * by default) with a temp-file-only scratch cache, so neither the file nor decoded streams are
+     * held on the heap. Text is extracted a few pages at a time and each batch of chunks is handed
+     * to the sink as soon as it is embedded; the tail of a batch is carried into the next one so
+     * chunks keep their overlap across batch boundaries. With structural chunking each batch is
+     * chunked on its own, carrying only the heading path; a section spanning a batch boundary is cut there.
+     *
+     * @throws IllegalArgumentException if the upload exceeds the size limit
+     */
+    public PdfIngestionResult processLargePdf(InputStream upload, String filename, Consumer<List<DocumentChunk>> sink) {
+        long startTime = System.currentTimeMillis();
+        Path spooled = null;
+        try {
+            spooled = Files.createTempFile(Path.of(spoolDir), "upload-", ".pdf");
+            long bytes = spool(upload, spooled);
+            logger.info("Spooled {} ({} bytes) to {}", filename, bytes, spooled);
+
+            int chunkCount = 0;
+            int nextChunkIndex = 0;
+            int pageCount;
+            try (PDDocument pdf = Loader.loadPDF(openSpooled(spooled), "", null, null,
+                    IOUtils.createTempFileOnlyStreamCache())) {
+                pageCount = pdf.getNumberOfPages();
+                PDFTextStripper stripper = new PDFTextStripper();
+                StructuralPdfChunker structuralChunker = isStructural() ? newStructuralChunker() : null;
+                String carry = "";
+                for (int first = 1; first <= pageCount; first += pagesPerBatch) {
+                    int last = Math.min(first + pagesPerBatch - 1, pageCount);
+                    if (structuralChunker != null) {
+                        List<TextSegment> segments = structuralChunker.chunk(pdf, first, last);
+                        List<DocumentChunk> chunks = createEmbeddings(segments, filename, nextChunkIndex);
+                        nextChunkIndex += segments.size();
+                        chunkCount += chunks.size();
+                        sink.accept(chunks);
+                        continue;
+                    }
+                    stripper.setStartPage(first);
+                    stripper.setEndPage(last);
+                    String text = carry + stripper.getText(pdf);
+                    if (text.isBlank()) {
+                        continue;
+                    }
+                    List<TextSegment> segments = splitDocument(Document.from(text));
+                    List<DocumentChunk> chunks = createEmbeddings(segments, filename, nextChunkIndex);
+                    nextChunkIndex += segments.size();
+                    chunkCount += chunks.size();
+                    sink.accept(chunks);
+                    carry = text.substring(Math.max(0, text.length() - chunkOverlap));
+                }
+            }
+
+            PdfIngestionResult result = new PdfIngestionResult(filename, bytes, pageCount, chunkCount,
+                    System.currentTimeMillis() - startTime);
+            logger.info("Processed large PDF {}: {} pages, {} chunks in {}ms", filename, pageCount, chunkCount,
+                    result.processingTimeMs());
+            return result;
+
+        } catch (IllegalArgumentException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Error processing large PDF file: {}", e.getMessage(), e);
+            throw new RuntimeException("Failed to process large PDF file", e);
+        } finally {
+            if (spooled != null) {
+                try {
+                    Files.deleteIfExists(spooled);
+                } catch (IOException e) {
+                    logger.warn("Failed to delete spooled upload {}", spooled, e);
+                }
+            }
+        }
+    }
+
+    private long spool(InputStream upload, Path target) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        try (OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = upload.read(buffer)) != -1) {
+                total += read;
+                if (total > largeUploadMaxBytes) {
+                    throw new IllegalArgumentException("Upload exceeds " + largeUploadMaxBytes + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        }
+        return total;
+    }
+
+    private RandomAccessRead openSpooled(Path spooled) throws IOException {
+        // Mapped pages live in the page cache, not the heap; the buffered reader is the fallback for 32-bit JVMs
+        return memoryMapped
+                ? new RandomAccessReadMemoryMappedFile(spooled.toFile())
+                : new RandomAccessReadBufferedFile(spooled.toFile());
+    }
+
     private Document parseDocument(MultipartFile file) throws Exception {
         try (InputStream inputStream = file.getInputStream()) {
             ApachePdfBoxDocumentParser parser = new ApachePdfBoxDocumentParser();
@@ -62,12 +207,20 @@ public class PdfProcessingService {
         }
     }
 
+    private boolean isStructural() {
+        return "structural".equalsIgnoreCase(chunkingStrategy);
+    }
+
+    private StructuralPdfChunker newStructuralChunker() {
+        return new StructuralPdfChunker(maxChunkChars, minChunkChars);
+    }
+
     private List<TextSegment> splitDocument(Document document) {
         return DocumentSplitters.recursive(chunkSize, chunkOverlap)
                 .split(document);
     }
 
-    private List<DocumentChunk> createEmbeddings(List<TextSegment> segments, String filename) {
+    private List<DocumentChunk> createEmbeddings(List<TextSegment> segments, String filename, int firstChunkIndex) {
         List<DocumentChunk> chunks = new ArrayList<>();
         
         for (int i = 0; i < segments.size(); i++) {
@@ -94,8 +247,9 @@ public class PdfProcessingService {
                     content,
                     embeddingVector,
                     filename,
-                    i
+                    firstChunkIndex + i
                 );
+                chunk.setHeadingPath(segment.metadata().get(StructuralPdfChunker.HEADING_PATH));
                 
                 chunks.add(chunk);
                 logger.debug("Created embedding for chunk {} with dimension {}", i, embedding.dimension());
@@ -0,0 +1,53 @@
+package com.example.ragpoc.controller;
+
+import com.example.ragpoc.model.PdfIngestionResult;
+import com.example.ragpoc.service.OpenSearchService;
+import com.example.ragpoc.service.PdfProcessingService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+
+/**
+ * Upload path for PDFs too large for multipart handling.
+ *
+ * The PDF is sent as the raw request body ({@code application/pdf}), so it bypasses
+ * {@code spring.servlet.multipart.max-file-size} and is streamed straight to a spool file.
+ * <pre>
+ *   curl -H 'Content-Type: application/pdf' --data-binary @booklet.pdf \
+ *     'http://localhost:8080/api/documents/upload/large?filename=booklet.pdf'
+ * </pre>
+ */
+@RestController
+@RequestMapping("/api/documents")
+public class PdfUploadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PdfUploadController.class);
+
+    private final PdfProcessingService pdfProcessingService;
+    private final OpenSearchService openSearchService;
+
+    public PdfUploadController(PdfProcessingService pdfProcessingService, OpenSearchService openSearchService) {
+        this.pdfProcessingService = pdfProcessingService;
+        this.openSearchService = openSearchService;
+    }
+
+    @PostMapping(value = "/upload/large", consumes = {MediaType.APPLICATION_PDF_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<PdfIngestionResult> uploadLargePdf(InputStream body, @RequestParam String filename) {
+        try {
+            // Chunks are indexed batch by batch, so they never accumulate for the whole file
+            return ResponseEntity.ok(pdfProcessingService.processLargePdf(body, filename,
+                    openSearchService::indexDocumentChunks));
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected large upload {}: {}", filename, e.getMessage());
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build();
+        }
+    }
+}
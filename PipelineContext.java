@@ -0,0 +1,81 @@
+package com.example.ragapi.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Calling client and stage trace of the request a thread is working for.
+ *
+ * On the request thread both come from the servlet request and {@link StageTrace}. Work
+ * handed to an executor wrapped by {@link #propagating(Executor)} sees the values captured
+ * at submission instead, so stages timed on fan-out threads (multi-query search, federation,
+ * hedged model calls) keep the caller's client tag and land in the caller's trace. The
+ * header value is captured, not the servlet request, which is recycled once the response
+ * is sent while a hedge may still be running.
+ */
+public final class PipelineContext {
+
+    private static final String CLIENT_HEADER = "X-ClientName";
+    private static final ThreadLocal<PipelineContext> PROPAGATED = new ThreadLocal<>();
+
+    private final String clientName;
+    private final StageTrace trace;
+
+    private PipelineContext(String clientName, StageTrace trace) {
+        this.clientName = clientName;
+        this.trace = trace;
+    }
+
+    /**
+     * Executor that runs each task with the context of the thread that submitted it
+     */
+    public static Executor propagating(Executor delegate) {
+        return command -> {
+            PipelineContext captured = new PipelineContext(clientName(), trace());
+            delegate.execute(() -> {
+                PipelineContext previous = PROPAGATED.get();
+                PROPAGATED.set(captured);
+                try {
+                    command.run();
+                } finally {
+                    if (previous != null) {
+                        PROPAGATED.set(previous);
+                    } else {
+                        PROPAGATED.remove();
+                    }
+                }
+            });
+        };
+    }
+
+    /**
+     * Raw {@code X-ClientName} of the current request, or null outside one
+     */
+    static String clientName() {
+        PipelineContext propagated = PROPAGATED.get();
+        if (propagated != null) {
+            return propagated.clientName;
+        }
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return null;
+        }
+        HttpServletRequest request = servletAttributes.getRequest();
+        return request.getHeader(CLIENT_HEADER);
+    }
+
+    /**
+     * Trace of the current request, or null outside a traced request
+     */
+    static StageTrace trace() {
+        PipelineContext propagated = PROPAGATED.get();
+        if (propagated == null) {
+            return StageTrace.active();
+        }
+        return propagated.trace != null && propagated.trace.isActive() ? propagated.trace : null;
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.ragapi.metrics;
+
+import com.example.ragapi.model.RetrievedDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Per-stage timers and retrieval distributions for the RAG pipeline.
+ *
+ * Every stage is recorded into {@code rag.stage.duration} with a percentile histogram,
+ * tagged by stage, model ID, calling client and outcome. The client tag comes from the
+ * {@code X-ClientName} header of the current request (see {@link PipelineContext}) and is
+ * limited to the configured known clients so that arbitrary header values cannot blow up
+ * series cardinality. Timed stages are also written to the request's {@link StageTrace}, if any.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String NO_MODEL = "none";
+
+    private static final String UNKNOWN_CLIENT = "unknown";
+    private static final String OTHER_CLIENT = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final Set<String> knownClients;
+    private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> chunkCounts = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> scores = new ConcurrentHashMap<>();
+    private final Map<String, Counter> emptyRetrievals = new ConcurrentHashMap<>();
+
+    public PipelineMetrics(
+            MeterRegistry meterRegistry,
+            @Value("${rag.metrics.known-clients:}") Set<String> knownClients) {
+        this.meterRegistry = meterRegistry;
+        this.knownClients = Set.copyOf(knownClients);
+    }
+
+    /**
+     * Run one stage and record its duration, tagging the outcome as error if it throws
+     */
+    public <T> T time(Stage stage, String modelId, Supplier<T> work) {
+        long startNanos = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = work.get();
+            success = true;
+            return result;
+        } finally {
+            long endNanos = System.nanoTime();
+            record(stage, modelId, endNanos - startNanos, success);
+
+            StageTrace trace = PipelineContext.trace();
+            if (trace != null) {
+                trace.record(stage, startNanos, endNanos);
+            }
+        }
+    }
+
+    /**
+     * Record an already measured stage
+     */
+    public void record(Stage stage, String modelId, long elapsedNanos, boolean success) {
+        TimerKey key = new TimerKey(stage, modelId != null ? modelId : NO_MODEL, currentClient(), success);
+        timers.computeIfAbsent(key, this::newTimer).record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record how many chunks a retrieval returned and the score of each
+     */
+    public void recordRetrieval(List<RetrievedDocument> documents) {
+        String client = currentClient();
+        chunkCounts.computeIfAbsent(client, tag -> DistributionSummary.builder("rag.retrieval.chunks")
+                        .description("Chunks returned per retrieval")
+                        .tag("client", tag)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry))
+                .record(documents.size());
+
+        if (documents.isEmpty()) {
+            emptyRetrievals.computeIfAbsent(client, tag -> Counter.builder("rag.retrieval.empty")
+                            .description("Retrievals that returned no chunk above the threshold")
+                            .tag("client", tag)
+                            .register(meterRegistry))
+                    .increment();
+            return;
+        }
+
+        DistributionSummary scoreSummary = scores.computeIfAbsent(client, tag -> DistributionSummary.builder("rag.retrieval.score")
+                .description("Similarity score of each retrieved chunk")
+                .tag("client", tag)
+                .serviceLevelObjectives(0.5, 0.6, 0.7, 0.75, 0.8, 0.85, 0.9, 0.95)
+                .register(meterRegistry));
+        for (RetrievedDocument document : documents) {
+            scoreSummary.record(document.score());
+        }
+    }
+
+    private Timer newTimer(TimerKey key) {
+        return Timer.builder("rag.stage.duration")
+                .description("Duration of one RAG pipeline stage")
+                .tag("stage", key.stage().tagValue())
+                .tag("model", key.modelId())
+                .tag("client", key.client())
+                .tag("outcome", key.success() ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private String currentClient() {
+        String client = PipelineContext.clientName();
+        if (client == null || client.isBlank()) {
+            return UNKNOWN_CLIENT;
+        }
+        return knownClients.contains(client) ? client : OTHER_CLIENT;
+    }
+
+    /**
+     * Instrumented pipeline stages
+     */
+    public enum Stage {
+        EMBEDDING("embedding"),
+        RETRIEVAL("retrieval"),
+        CONTEXT_BUILD("context_build"),
+        GENERATION("generation"),
+        PERSISTENCE("persistence"),
+        CHUNKING("chunking"),
+        INDEXING("indexing");
+
+        private final String tagValue;
+
+        Stage(String tagValue) {
+            this.tagValue = tagValue;
+        }
+
+        public String tagValue() {
+            return tagValue;
+        }
+    }
+
+    private record TimerKey(Stage stage, String modelId, String client, boolean success) {}
+}
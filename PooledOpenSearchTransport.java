@@ -0,0 +1,202 @@
+package com.example.common.http;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.auth.AuthScope;
+import org.apache.hc.client5.http.auth.UsernamePasswordCredentials;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.nio.AsyncConnectionEndpoint;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.config.Lookup;
+import org.apache.hc.core5.http.config.RegistryBuilder;
+import org.apache.hc.core5.http.nio.ssl.TlsStrategy;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http.ssl.TLS;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.ssl.SSLContexts;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.opensearch.client.json.jackson.JacksonJsonpMapper;
+import org.opensearch.client.transport.OpenSearchTransport;
+import org.opensearch.client.transport.httpclient5.ApacheHttpClient5TransportBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the pooled, instrumented OpenSearch transport used by both the query API and the
+ * ingestion app, so that they share pool sizing, keep-alive, TLS and connection validation,
+ * and report leased / pending / available / max connections and connect time under
+ * {@code http.client.pool.*} tagged with the pool name.
+ */
+public final class PooledOpenSearchTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(PooledOpenSearchTransport.class);
+
+    private PooledOpenSearchTransport() {
+    }
+
+    /**
+     * Pool and connection settings, bound from {@code http.transport.*}
+     */
+    public record Settings(
+            int maxConnectionsTotal,
+            int maxConnectionsPerRoute,
+            long connectTimeoutMs,
+            long socketTimeoutMs,
+            long connectionTtlSeconds,
+            long keepAliveSeconds,
+            long validateAfterInactivityMs,
+            boolean http2Enabled,
+            boolean compressionEnabled
+    ) {}
+
+    /**
+     * Create a transport backed by its own instrumented connection pool; closing the transport closes the pool
+     */
+    public static OpenSearchTransport create(String poolName, URI endpoint, String username, String password,
+                                             Settings settings, MeterRegistry meterRegistry) {
+        logger.info("Creating pooled OpenSearch transport '{}' for endpoint: {} (maxTotal={}, maxPerRoute={}, http2={}, compression={})",
+                poolName, endpoint, settings.maxConnectionsTotal(), settings.maxConnectionsPerRoute(),
+                settings.http2Enabled(), settings.compressionEnabled());
+
+        InstrumentedConnectionManager connectionManager = createConnectionManager(poolName, settings, meterRegistry);
+        HttpHost host = new HttpHost(endpoint.getScheme(), endpoint.getHost(), endpoint.getPort());
+
+        return ApacheHttpClient5TransportBuilder
+                .builder(host)
+                .setMapper(new JacksonJsonpMapper())
+                .setCompressionEnabled(settings.compressionEnabled())
+                .setHttpClientConfigCallback(httpClientBuilder -> {
+                    httpClientBuilder
+                            .setConnectionManager(connectionManager)
+                            .setConnectionManagerShared(false)
+                            .setKeepAliveStrategy((response, context) -> TimeValue.ofSeconds(settings.keepAliveSeconds()))
+                            .setIOReactorConfig(IOReactorConfig.custom()
+                                    .setSoKeepAlive(true)
+                                    .setTcpNoDelay(true)
+                                    .build())
+                            .setH2Config(H2Config.custom()
+                                    .setPushEnabled(false)
+                                    .build())
+                            .evictExpiredConnections()
+                            .evictIdleConnections(TimeValue.ofSeconds(settings.keepAliveSeconds()));
+
+                    if (username != null && !username.isEmpty() && password != null && !password.isEmpty()) {
+                        BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+                        credentialsProvider.setCredentials(
+                                new AuthScope(host),
+                                new UsernamePasswordCredentials(username, password.toCharArray()));
+                        httpClientBuilder.setDefaultCredentialsProvider(credentialsProvider);
+                    }
+                    return httpClientBuilder;
+                })
+                .build();
+    }
+
+    private static InstrumentedConnectionManager createConnectionManager(String poolName, Settings settings,
+                                                                         MeterRegistry meterRegistry) {
+        TlsStrategy tlsStrategy = ClientTlsStrategyBuilder.create()
+                .setSslContext(SSLContexts.createSystemDefault())
+                .setTlsVersions(TLS.V_1_3, TLS.V_1_2)
+                .build();
+        Lookup<TlsStrategy> tlsStrategies = RegistryBuilder.<TlsStrategy>create()
+                .register(URIScheme.HTTPS.id, tlsStrategy)
+                .build();
+
+        InstrumentedConnectionManager connectionManager = new InstrumentedConnectionManager(
+                tlsStrategies,
+                Timer.builder("http.client.pool.connect")
+                        .description("Time to establish a new pooled connection, including TLS handshake")
+                        .tag("pool", poolName)
+                        .publishPercentileHistogram()
+                        .register(meterRegistry));
+
+        connectionManager.setMaxTotal(settings.maxConnectionsTotal());
+        connectionManager.setDefaultMaxPerRoute(settings.maxConnectionsPerRoute());
+        connectionManager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(settings.connectTimeoutMs()))
+                .setSocketTimeout(Timeout.ofMilliseconds(settings.socketTimeoutMs()))
+                .setTimeToLive(TimeValue.ofSeconds(settings.connectionTtlSeconds()))
+                .setValidateAfterInactivity(TimeValue.ofMilliseconds(settings.validateAfterInactivityMs()))
+                .build());
+        connectionManager.setDefaultTlsConfig(TlsConfig.custom()
+                .setVersionPolicy(settings.http2Enabled() ? HttpVersionPolicy.NEGOTIATE : HttpVersionPolicy.FORCE_HTTP_1)
+                .build());
+
+        Gauge.builder("http.client.pool.leased", connectionManager, cm -> cm.getTotalStats().getLeased())
+                .tag("pool", poolName).register(meterRegistry);
+        Gauge.builder("http.client.pool.pending", connectionManager, cm -> cm.getTotalStats().getPending())
+                .tag("pool", poolName).register(meterRegistry);
+        Gauge.builder("http.client.pool.available", connectionManager, cm -> cm.getTotalStats().getAvailable())
+                .tag("pool", poolName).register(meterRegistry);
+        Gauge.builder("http.client.pool.max", connectionManager, cm -> cm.getTotalStats().getMax())
+                .tag("pool", poolName).register(meterRegistry);
+
+        return connectionManager;
+    }
+
+    /**
+     * Async connection manager that times every new connection (TCP connect + TLS handshake)
+     */
+    static class InstrumentedConnectionManager extends PoolingAsyncClientConnectionManager {
+
+        private final Timer connectTimer;
+
+        InstrumentedConnectionManager(Lookup<TlsStrategy> tlsStrategies, Timer connectTimer) {
+            super(tlsStrategies, PoolConcurrencyPolicy.STRICT, PoolReusePolicy.LIFO, TimeValue.NEG_ONE_MILLISECOND);
+            this.connectTimer = connectTimer;
+        }
+
+        @Override
+        public Future<AsyncConnectionEndpoint> connect(
+                AsyncConnectionEndpoint endpoint,
+                ConnectionInitiator connectionInitiator,
+                Timeout connectTimeout,
+                Object attachment,
+                HttpContext context,
+                FutureCallback<AsyncConnectionEndpoint> callback) {
+
+            long startNanos = System.nanoTime();
+            return super.connect(endpoint, connectionInitiator, connectTimeout, attachment, context,
+                    new FutureCallback<>() {
+                        @Override
+                        public void completed(AsyncConnectionEndpoint result) {
+                            connectTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                            if (callback != null) {
+                                callback.completed(result);
+                            }
+                        }
+
+                        @Override
+                        public void failed(Exception ex) {
+                            if (callback != null) {
+                                callback.failed(ex);
+                            }
+                        }
+
+                        @Override
+                        public void cancelled() {
+                            if (callback != null) {
+                                callback.cancelled();
+                            }
+                        }
+                    });
+        }
+    }
+}
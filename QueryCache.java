@@ -0,0 +1,88 @@
+package com.example.ragapi.service;
+
+import com.example.ragapi.model.RetrievedDocument;
+import com.example.ragapi.model.SearchFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-process caches of question embeddings and retrieval results.
+ *
+ * Embeddings depend only on the question text and are kept until evicted by size.
+ * Retrievals expire after a short TTL and are dropped whenever this instance writes
+ * to the index, so other instances see index changes within the TTL.
+ */
+@Component
+public class QueryCache {
+
+    private final Cache<String, List<Float>> embeddings;
+    private final Cache<RetrievalKey, List<RetrievedDocument>> retrievals;
+
+    public QueryCache(
+            MeterRegistry meterRegistry,
+            @Value("${rag.cache.embeddings.max-size:10000}") long embeddingsMaxSize,
+            @Value("${rag.cache.retrievals.max-size:5000}") long retrievalsMaxSize,
+            @Value("${rag.cache.retrievals.ttl-seconds:300}") long retrievalsTtlSeconds) {
+        this.embeddings = Caffeine.newBuilder()
+                .maximumSize(embeddingsMaxSize)
+                .recordStats()
+                .build();
+        this.retrievals = Caffeine.newBuilder()
+                .maximumSize(retrievalsMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(retrievalsTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, embeddings, "query-embeddings");
+        CaffeineCacheMetrics.monitor(meterRegistry, retrievals, "query-retrievals");
+    }
+
+    /**
+     * Embedding of a question, computed by the loader on a miss
+     */
+    public List<Float> embedding(String question, Function<String, List<Float>> loader) {
+        return embeddings.get(normalize(question), key -> loader.apply(question));
+    }
+
+    /**
+     * Retrieval for a question and its search parameters, computed by the loader on a miss
+     */
+    public List<RetrievedDocument> retrieval(RetrievalKey key, Supplier<List<RetrievedDocument>> loader) {
+        return retrievals.get(key, ignored -> loader.get());
+    }
+
+    /**
+     * Drop cached retrievals after the index changed
+     */
+    public void invalidateRetrievals() {
+        retrievals.invalidateAll();
+    }
+
+    static String normalize(String question) {
+        return question.strip().replaceAll("\\s+", " ");
+    }
+
+    /**
+     * Everything a retrieval result depends on besides the index contents
+     */
+    public record RetrievalKey(
+            String question,
+            int maxResults,
+            List<SearchFilter> filters,
+            double threshold,
+            VectorSearchService.SearchScope scope
+    ) {
+        public RetrievalKey {
+            question = normalize(question);
+            filters = filters != null ? List.copyOf(filters) : List.of();
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.ragapi.service;
+
+import com.example.ragapi.metrics.PipelineContext;
+import com.example.ragapi.resilience.BedrockResilience;
+import dev.langchain4j.model.bedrock.BedrockAnthropicChatModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rewrites a question into alternative search queries for multi-query retrieval.
+ *
+ * Rule-based variants strip conversational filler, expand abbreviations to the term the
+ * plan documents use, swap in glossary synonyms and reduce the question to its keywords.
+ * An optional rewrite by the fast Claude tier runs asynchronously so it never delays the
+ * rule-based searches.
+ */
+@Service
+public class QueryVariantGenerator {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryVariantGenerator.class);
+
+    private static final String GLOSSARY_RESOURCE = "benefits_glossary.txt";
+
+    private static final Pattern FILLER = Pattern.compile(
+            "^(please\\s+)?(can|could|would)\\s+you\\s+(please\\s+)?(tell|explain to|show)\\s+me\\s+"
+                    + "|^(i\\s+(want|need|would like|'d like)\\s+to\\s+know|do\\s+you\\s+know|please\\s+explain)\\s+",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Set<String> STOPWORDS = Set.of(
+            "a", "an", "the", "is", "are", "am", "was", "were", "be", "do", "does", "did", "my", "me", "i",
+            "what", "how", "much", "many", "when", "where", "which", "who", "why", "can", "could", "would",
+            "should", "will", "for", "of", "to", "in", "on", "at", "by", "with", "under", "about", "it", "this",
+            "that", "there", "if", "or", "and", "any", "you", "your", "we", "our", "get", "have", "has");
+
+    private static final String REWRITE_PROMPT = """
+            Rewrite this health benefits question as one standalone search query that uses the \
+            terminology of insurance plan documents. Reply with the query only.
+
+            Question: %s""";
+
+    private final BedrockAnthropicChatModel fastModel;
+    private final BedrockResilience bedrockResilience;
+    private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+    private final Executor requestExecutor = PipelineContext.propagating(executorService);
+
+    /** Glossary term (lower case) to its group, canonical term first */
+    private final Map<String, List<String>> glossary;
+    private final Pattern glossaryTerms;
+
+    @Value("${bedrock.claude.fast-model:anthropic.claude-3-haiku-20240307-v1:0}")
+    private String fastModelId;
+
+    @Value("${rag.multi-query.llm-rewrite.enabled:false}")
+    private boolean llmRewriteEnabled;
+
+    @Value("${rag.multi-query.llm-rewrite.timeout-ms:1200}")
+    private long llmRewriteTimeoutMs;
+
+    public QueryVariantGenerator(
+            @Qualifier("fastAnthropicChatModel") BedrockAnthropicChatModel fastModel,
+            BedrockResilience bedrockResilience) {
+        this.fastModel = fastModel;
+        this.bedrockResilience = bedrockResilience;
+        this.glossary = loadGlossary();
+        this.glossaryTerms = termPattern(glossary.keySet());
+    }
+
+    /**
+     * Rule-based variants of the question, best first, without the question itself
+     */
+    public List<String> ruleBasedVariants(String question, int limit) {
+        Map<String, String> variants = new LinkedHashMap<>();
+        String original = question.trim();
+        variants.put(key(original), original);
+
+        String cleaned = FILLER.matcher(original).replaceFirst("").trim();
+        String expanded = replaceTerms(cleaned, group -> group.get(0));
+        add(variants, expanded);
+
+        // One synonym swap per glossary group found, so each variant stresses different wording
+        Matcher matcher = glossaryTerms.matcher(expanded);
+        while (matcher.find() && variants.size() <= limit) {
+            List<String> group = glossary.get(matcher.group().toLowerCase(Locale.ROOT));
+            for (String synonym : group) {
+                if (synonym.length() > 3 && !synonym.equalsIgnoreCase(matcher.group())) {
+                    add(variants, expanded.substring(0, matcher.start()) + synonym + expanded.substring(matcher.end()));
+                    break;
+                }
+            }
+        }
+
+        add(variants, keywords(expanded));
+
+        return variants.values().stream()
+                .skip(1)
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Rewrite by the fast Claude tier, or empty when disabled, slow or failing
+     */
+    public CompletableFuture<Optional<String>> llmRewrite(String question) {
+        if (!llmRewriteEnabled) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                String rewrite = bedrockResilience.call(fastModelId, Duration.ofMillis(llmRewriteTimeoutMs),
+                        () -> fastModel.generate(REWRITE_PROMPT.formatted(question)));
+                String cleaned = rewrite == null ? "" : rewrite.strip().replaceAll("^\"|\"$", "");
+                return cleaned.isEmpty() || cleaned.length() > 500 ? Optional.<String>empty() : Optional.of(cleaned);
+            } catch (Exception e) {
+                logger.debug("LLM query rewrite skipped: {}", e.getMessage());
+                return Optional.<String>empty();
+            }
+        }, requestExecutor);
+    }
+
+    private String replaceTerms(String text, Function<List<String>, String> replacement) {
+        Matcher matcher = glossaryTerms.matcher(text);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            List<String> group = glossary.get(matcher.group().toLowerCase(Locale.ROOT));
+            matcher.appendReplacement(result, Matcher.quoteReplacement(replacement.apply(group)));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static String keywords(String text) {
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^a-z0-9-]+"))
+                .filter(word -> !word.isEmpty() && !STOPWORDS.contains(word))
+                .reduce((first, second) -> first + " " + second)
+                .orElse("");
+    }
+
+    private static void add(Map<String, String> variants, String variant) {
+        if (!variant.isBlank()) {
+            variants.putIfAbsent(key(variant), variant);
+        }
+    }
+
+    private static String key(String variant) {
+        return variant.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9]+", " ").trim();
+    }
+
+    private static Map<String, List<String>> loadGlossary() {
+        Map<String, List<String>> glossary = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new ClassPathResource(GLOSSARY_RESOURCE).getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                List<String> group = Arrays.stream(line.split(","))
+                        .map(String::trim)
+                        .filter(term -> !term.isEmpty())
+                        .toList();
+                group.forEach(term -> glossary.putIfAbsent(term.toLowerCase(Locale.ROOT), group));
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load benefits glossary", e);
+        }
+        logger.info("Loaded benefits glossary with {} terms", glossary.size());
+        return glossary;
+    }
+
+    private static Pattern termPattern(Set<String> terms) {
+        // Longest terms first so "out-of-pocket maximum" wins over "oop"
+        List<String> sorted = new ArrayList<>(terms);
+        sorted.sort((a, b) -> Integer.compare(b.length(), a.length()));
+        String alternatives = sorted.stream().map(Pattern::quote).reduce((a, b) -> a + "|" + b).orElse("(?!)");
+        return Pattern.compile("\\b(?:" + alternatives + ")\\b", Pattern.CASE_INSENSITIVE);
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.ragapi;
+
+import com.example.ragapi.config.NativeRuntimeHints;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+@SpringBootApplication
+@ImportRuntimeHints(NativeRuntimeHints.class)
+public class RagApiApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(RagApiApplication.class, args);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.ragapi.controller;
+
+import com.example.ragapi.metrics.StageTrace;
+import com.example.ragapi.model.*;
+import com.example.ragapi.service.RagService;
+import jakarta.validation.Valid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/v1/rag")
+@CrossOrigin(origins = "*")
+public class RagController {
+
+    private static final Logger logger = LoggerFactory.getLogger(RagController.class);
+
+    private final RagService ragService;
+
+    public RagController(RagService ragService) {
+        this.ragService = ragService;
+    }
+
+    /**
+     * Answer a question using retrieval-augmented generation
+     */
+    @PostMapping("/query")
+    public ResponseEntity<QueryResponse> query(
+            @Valid @RequestBody QueryRequest request,
+            @RequestHeader(value = "X-ClientName", required = false) String clientName,
+            @RequestHeader(value = "X-ClientSessionId", required = false) String clientSessionId,
+            @RequestHeader(value = "X-TrackingId", required = false) String trackingId,
+            @RequestHeader(value = "X-SubmitDateTime", required = false) String submitDateTime,
+            @RequestHeader(value = "X-UserId", required = false) String userId,
+            @RequestHeader(value = "X-UserRole", required = false) String userRole,
+            @RequestHeader(value = "X-Include-Trace", defaultValue = "false") boolean includeTrace) {
+        logger.info("Received RAG query request");
+
+        InferenceContext context = InferenceContext.of(
+                clientName, clientSessionId, trackingId, submitDateTime, userId, userRole);
+
+        // Stage timings are always collected; they are only serialized when asked for
+        StageTrace trace = StageTrace.begin(context.trackingId());
+        try {
+            QueryResponse processed = ragService.processQuery(request, context);
+
+            QueryResponse response = includeTrace ? processed.withTrace(trace.snapshot()) : processed;
+            HttpStatus status = response.metadata() != null && "error".equals(response.metadata().status())
+                    ? HttpStatus.INTERNAL_SERVER_ERROR : HttpStatus.OK;
+            return ResponseEntity.status(status)
+                    .header("X-TrackingId", context.trackingId())
+                    .body(response);
+        } finally {
+            StageTrace.end();
+        }
+    }
+
+    /**
+     * Lightweight liveness check
+     */
+    @GetMapping("/health")
+    public ResponseEntity<HealthResponse> health() {
+        return ResponseEntity.ok(new HealthResponse(
+            "UP",
+            "rag-api-langchain4j",
+            "1.0.0",
+            System.currentTimeMillis(),
+            Map.of()
+        ));
+    }
+
+    /**
+     * API information
+     */
+    @GetMapping("/info")
+    public ResponseEntity<ApiInfoResponse> info() {
+        return ResponseEntity.ok(new ApiInfoResponse(
+            "RAG API",
+            "1.0.0",
+            "RAG API using LangChain4j, AWS Bedrock, and OpenSearch",
+            Map.of(
+                "query", "POST /api/v1/rag/query",
+                "health", "GET /api/v1/rag/health",
+                "documents", "/api/v1/documents",
+                "history", "GET /api/v1/history/conversations/{conversationId}"
+            ),
+            Map.of()
+        ));
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.ragapi.service;
 
+import com.example.ragapi.metrics.PipelineMetrics;
+import com.example.ragapi.model.ConversationTurn;
+import com.example.ragapi.model.InferenceContext;
 import com.example.ragapi.model.QueryRequest;
 import com.example.ragapi.model.QueryResponse;
 import com.example.ragapi.model.RetrievedDocument;
@@ -8,6 +11,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Optional;
 
 @Service
 public class RagService {
@@ -16,32 +20,81 @@ public class RagService {
     
     private final VectorSearchService vectorSearchService;
     private final ClaudeService claudeService;
+    private final ConversationMemoryService conversationMemory;
+    private final ModelRouter modelRouter;
+    private final EmbeddingService embeddingService;
+    private final FastPathAnswerService fastPathAnswers;
+    private final QueryCache queryCache;
+    private final InferenceHistoryRecorder historyRecorder;
+    private final PipelineMetrics pipelineMetrics;
     
     public RagService(
             VectorSearchService vectorSearchService,
-            ClaudeService claudeService) {
+            ClaudeService claudeService,
+            ConversationMemoryService conversationMemory,
+            ModelRouter modelRouter,
+            EmbeddingService embeddingService,
+            FastPathAnswerService fastPathAnswers,
+            QueryCache queryCache,
+            InferenceHistoryRecorder historyRecorder,
+            PipelineMetrics pipelineMetrics) {
         this.vectorSearchService = vectorSearchService;
         this.claudeService = claudeService;
+        this.conversationMemory = conversationMemory;
+        this.modelRouter = modelRouter;
+        this.embeddingService = embeddingService;
+        this.fastPathAnswers = fastPathAnswers;
+        this.queryCache = queryCache;
+        this.historyRecorder = historyRecorder;
+        this.pipelineMetrics = pipelineMetrics;
     }
     
-    public QueryResponse processQuery(QueryRequest request) {
+    /**
+     * Answer the question and record it in inference history; the entry point for every transport
+     */
+    public QueryResponse processQuery(QueryRequest request, InferenceContext context) {
+        QueryResponse response = answer(request, context);
+        
+        // Audit write is buffered; flushed in the background, or by the Lambda handler before it responds
+        pipelineMetrics.time(PipelineMetrics.Stage.PERSISTENCE, PipelineMetrics.NO_MODEL,
+                () -> historyRecorder.recordQuery(context, request, response));
+        return response;
+    }
+    
+    private QueryResponse answer(QueryRequest request, InferenceContext context) {
         long startTime = System.currentTimeMillis();
         
         try {
             logger.info("Processing RAG query: {}", request.question());
             
-            // Step 1: Search for similar documents using Spring AI
-            logger.debug("Step 1: Searching for similar documents");
-            List<RetrievedDocument> retrievedDocs = vectorSearchService.searchSimilarDocuments(
+            // Step 1: Embed once (or reuse a cached embedding); the same vector serves the FAQ check and retrieval
+            List<Float> queryEmbedding = queryCache.embedding(request.question(), embeddingService::generateEmbedding);
+            
+            Optional<FastPathAnswerService.Match> curated = fastPathAnswers.findAnswer(request, queryEmbedding);
+            if (curated.isPresent()) {
+                FastPathAnswerService.Match match = curated.get();
+                conversationMemory.append(context, request.conversationId(), request.question(), match.answer());
+                long processingTime = System.currentTimeMillis() - startTime;
+                fastPathAnswers.recordAnswered(processingTime);
+                logger.info("RAG query answered from fast path in {}ms", processingTime);
+                return QueryResponse.success(match.answer(), List.of(match.asSource()), match.similarity(),
+                        processingTime, FastPathAnswerService.FAST_PATH_MODEL_ID);
+            }
+            
+            // Step 2: Search for similar documents, widening short questions into query variants
+            logger.debug("Step 2: Searching for similar documents");
+            List<RetrievedDocument> retrievedDocs = vectorSearchService.searchForQuestion(
                     request.question(),
+                    queryEmbedding,
                     request.maxResults(),
                     request.filters(),
-                    request.threshold()
+                    request.threshold(),
+                    VectorSearchService.SearchScope.of(request)
             );
             
             if (retrievedDocs.isEmpty()) {
                 logger.warn("No documents found for query");
-                return new QueryResponse(
+                return QueryResponse.success(
                         "I couldn't find any relevant documents to answer your question. Please try rephrasing your question or check if the relevant documents are available in the knowledge base.",
                         List.of(),
                         0.0,
@@ -49,33 +102,35 @@ public class RagService {
                 );
             }
             
-            // Step 2: Generate answer using Claude
-            logger.debug("Step 2: Generating answer using Claude with {} documents", retrievedDocs.size());
-            String answer = claudeService.generateAnswer(request.question(), retrievedDocs);
-            
-            // Step 3: Calculate confidence score
+            // Step 3: Retrieval confidence decides which Claude tier answers
+            List<ConversationTurn> earlierTurns = conversationMemory.recentTurns(context, request.conversationId());
             double confidence = claudeService.calculateConfidence(retrievedDocs);
+            ModelRouter.Route route = modelRouter.route(request.question(), retrievedDocs, earlierTurns, confidence);
+            
+            // Step 4: Generate answer using Claude, with earlier turns for follow-up questions
+            logger.debug("Step 4: Generating answer using {} with {} documents", route.modelId(), retrievedDocs.size());
+            ClaudeService.GeneratedAnswer answer = claudeService.generateAnswer(
+                    request.question(), retrievedDocs, earlierTurns, route);
+            conversationMemory.append(context, request.conversationId(), request.question(), answer.text());
             
             long processingTime = System.currentTimeMillis() - startTime;
-            logger.info("RAG query processed successfully in {}ms", processingTime);
+            logger.info("RAG query processed successfully in {}ms by {}", processingTime, route.modelId());
             
-            return new QueryResponse(
-                    answer,
+            return QueryResponse.success(
+                    answer.text(),
                     retrievedDocs,
                     confidence,
-                    processingTime
+                    processingTime,
+                    route.modelId(),
+                    answer.tokens()
             );
             
         } catch (Exception e) {
             logger.error("Error processing RAG query", e);
             long processingTime = System.currentTimeMillis() - startTime;
             
-            return new QueryResponse(
-                    "I encountered an error while processing your question. Please try again later.",
-                    List.of(),
-                    0.0,
-                    processingTime
-            );
+            // Details stay in the log; clients only see that the query failed
+            return QueryResponse.error("Query processing failed", processingTime);
         }
     }
 }
\ No newline at end of file
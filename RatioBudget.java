@@ -0,0 +1,33 @@
+package com.example.ragapi.resilience;
+
+/**
+ * Caps extra work (retries, hedges) to a fraction of regular traffic.
+ *
+ * Every regular call deposits {@code ratio} tokens, up to {@code maxTokens}; each extra
+ * call withdraws a whole token. When calls start failing en masse the budget drains and
+ * extra calls stop, instead of multiplying load on a struggling dependency.
+ */
+final class RatioBudget {
+
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens;
+
+    RatioBudget(double ratio, double maxTokens) {
+        this.ratio = ratio;
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+    }
+
+    synchronized void deposit() {
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+
+    synchronized boolean tryWithdraw() {
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return true;
+        }
+        return false;
+    }
+}
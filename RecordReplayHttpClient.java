@@ -0,0 +1,282 @@
+package com.example.ragapi.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.HttpExecuteResponse;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.utils.IoUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records or replays Bedrock InvokeModel exchanges at the SDK HTTP layer.
+ *
+ * Exchanges are keyed by a SHA-256 of the request path (which names the model) and body,
+ * so the same prompt or embedding input always maps to the same recording regardless of
+ * request signatures and timestamps. Recordings are stored as gzipped JSON lines holding
+ * the status, the Bedrock response headers, the raw response body and the observed
+ * latency. In replay mode no request leaves the process; identical requests recorded
+ * more than once are served in recorded order, wrapping around.
+ */
+public class RecordReplayHttpClient implements SdkHttpClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(RecordReplayHttpClient.class);
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public enum Mode {
+        OFF, RECORD, REPLAY;
+
+        public static Mode from(String value) {
+            return value == null || value.isBlank() ? OFF : valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final SdkHttpClient delegate;
+    private final Mode mode;
+    private final Path file;
+    private final boolean replayLatency;
+
+    private final Map<String, List<Recording>> recordings = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> replayCursors = new ConcurrentHashMap<>();
+    private Writer writer;
+
+    public RecordReplayHttpClient(SdkHttpClient delegate, Mode mode, Path file, boolean replayLatency) {
+        this.delegate = delegate;
+        this.mode = mode;
+        this.file = file;
+        this.replayLatency = replayLatency;
+
+        try {
+            if (mode == Mode.REPLAY) {
+                load();
+                logger.info("Replaying {} Bedrock exchanges ({} distinct requests) from {}, recorded latency {}",
+                        recordings.values().stream().mapToInt(List::size).sum(), recordings.size(), file,
+                        replayLatency ? "on" : "off");
+            } else if (mode == Mode.RECORD) {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(file,
+                        StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), true), StandardCharsets.UTF_8));
+                logger.info("Recording Bedrock exchanges to {}", file);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to open Bedrock recording file " + file, e);
+        }
+    }
+
+    @Override
+    public ExecutableHttpRequest prepareRequest(HttpExecuteRequest request) {
+        byte[] body = readBody(request);
+        String path = request.httpRequest().encodedPath();
+        String key = key(path, body);
+
+        if (mode == Mode.REPLAY) {
+            return new ExecutableHttpRequest() {
+                @Override
+                public HttpExecuteResponse call() throws IOException {
+                    return replay(key, path);
+                }
+
+                @Override
+                public void abort() {
+                }
+            };
+        }
+
+        HttpExecuteRequest forwarded = HttpExecuteRequest.builder()
+                .request(request.httpRequest())
+                .contentStreamProvider(request.contentStreamProvider().isPresent()
+                        ? () -> new ByteArrayInputStream(body) : null)
+                .metricCollector(request.metricCollector().orElse(null))
+                .build();
+        ExecutableHttpRequest executable = delegate.prepareRequest(forwarded);
+        if (mode == Mode.OFF) {
+            return executable;
+        }
+
+        return new ExecutableHttpRequest() {
+            @Override
+            public HttpExecuteResponse call() throws IOException {
+                long startNanos = System.nanoTime();
+                HttpExecuteResponse response = executable.call();
+                byte[] responseBody;
+                try (InputStream in = response.responseBody().orElse(null)) {
+                    responseBody = in != null ? IoUtils.toByteArray(in) : new byte[0];
+                }
+                long latencyMs = (System.nanoTime() - startNanos) / 1_000_000;
+
+                Recording recording = new Recording(key, path, response.httpResponse().statusCode(),
+                        bedrockHeaders(response.httpResponse()), new String(responseBody, StandardCharsets.UTF_8),
+                        latencyMs);
+                record(recording);
+                return toResponse(recording);
+            }
+
+            @Override
+            public void abort() {
+                executable.abort();
+            }
+        };
+    }
+
+    private HttpExecuteResponse replay(String key, String path) throws IOException {
+        List<Recording> candidates = recordings.get(key);
+        if (candidates == null) {
+            throw new IOException("No recorded Bedrock response for " + path + " (request hash " + key
+                    + "); record it first with bedrock.record-replay.mode=record");
+        }
+        int index = replayCursors.computeIfAbsent(key, k -> new AtomicInteger()).getAndIncrement();
+        Recording recording = candidates.get(Math.floorMod(index, candidates.size()));
+
+        if (replayLatency && recording.latencyMs() > 0) {
+            try {
+                Thread.sleep(recording.latencyMs());
+            } catch (InterruptedException e) {
+                // Hedged or timed-out calls are cancelled by interrupting them
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while replaying Bedrock response");
+            }
+        }
+        return toResponse(recording);
+    }
+
+    private synchronized void record(Recording recording) throws IOException {
+        ObjectNode line = MAPPER.createObjectNode()
+                .put("key", recording.key())
+                .put("path", recording.path())
+                .put("status", recording.status())
+                .put("latency_ms", recording.latencyMs())
+                .put("body", recording.body());
+        ObjectNode headers = line.putObject("headers");
+        recording.headers().forEach(headers::put);
+        writer.write(MAPPER.writeValueAsString(line));
+        writer.write('\n');
+        // Sync-flushed gzip keeps the file readable if the process is killed mid-run
+        writer.flush();
+    }
+
+    private void load() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                JsonNode node = MAPPER.readTree(line);
+                Map<String, String> headers = new TreeMap<>();
+                node.path("headers").fields().forEachRemaining(field -> headers.put(field.getKey(), field.getValue().asText()));
+                Recording recording = new Recording(node.path("key").asText(), node.path("path").asText(),
+                        node.path("status").asInt(), headers, node.path("body").asText(), node.path("latency_ms").asLong());
+                recordings.computeIfAbsent(recording.key(), k -> new ArrayList<>()).add(recording);
+            }
+        }
+    }
+
+    private static HttpExecuteResponse toResponse(Recording recording) {
+        SdkHttpResponse.Builder response = SdkHttpResponse.builder().statusCode(recording.status());
+        recording.headers().forEach(response::putHeader);
+        return HttpExecuteResponse.builder()
+                .response(response.build())
+                .responseBody(AbortableInputStream.create(
+                        new ByteArrayInputStream(recording.body().getBytes(StandardCharsets.UTF_8))))
+                .build();
+    }
+
+    /**
+     * Headers the SDK needs to parse the response: content type, error type and Bedrock token counts
+     */
+    private static Map<String, String> bedrockHeaders(SdkHttpResponse response) {
+        Map<String, String> headers = new TreeMap<>();
+        response.headers().forEach((name, values) -> {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (!values.isEmpty() && (lower.equals("content-type") || lower.startsWith("x-amzn-"))
+                    && !lower.equals("x-amzn-requestid")) {
+                headers.put(name, values.get(0));
+            }
+        });
+        return headers;
+    }
+
+    private static byte[] readBody(HttpExecuteRequest request) {
+        if (request.contentStreamProvider().isEmpty()) {
+            return new byte[0];
+        }
+        try (InputStream in = request.contentStreamProvider().get().newStream()) {
+            return IoUtils.toByteArray(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read Bedrock request body", e);
+        }
+    }
+
+    private static String key(String path, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(path.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to hash Bedrock request", e);
+        }
+    }
+
+    @Override
+    public String clientName() {
+        return delegate.clientName();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close Bedrock recording file {}", file, e);
+                }
+            }
+        }
+        delegate.close();
+    }
+
+    /**
+     * One recorded exchange
+     */
+    private record Recording(String key, String path, int status, Map<String, String> headers, String body,
+                             long latencyMs) {
+    }
+}
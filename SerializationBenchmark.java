@@ -0,0 +1,157 @@
+package com.example.ragapi.perf;
+
+import com.example.ragapi.model.QueryResponse;
+import com.example.ragapi.model.RetrievedDocument;
+import com.example.ragpoc.model.DocumentChunk;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for JSON serialization of the query response and of indexed chunks.
+ *
+ * The API mapper is configured like {@code spring.jackson} in applicaton.yml (snake_case,
+ * non-null); the ingestion app serializes chunks with Jackson defaults. A query response
+ * carries 20 sources of 1000 characters; a chunk carries its 1536-dim embedding. Search
+ * response parsing is measured with and without the vector in {@code _source}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class SerializationBenchmark {
+
+    private static final int DIMENSIONS = 1536;
+    private static final int CHUNK_CHARS = 1000;
+    private static final int RESULTS = 20;
+
+    private ObjectMapper apiMapper;
+    private ObjectMapper ingestionMapper;
+
+    private QueryResponse queryResponse;
+    private DocumentChunk documentChunk;
+    private String queryResponseJson;
+    private String documentChunkJson;
+    private String fullSearchResponseJson;
+    private String projectedSearchResponseJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        apiMapper = new ObjectMapper()
+                .setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE)
+                .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        ingestionMapper = new ObjectMapper();
+
+        Random random = new Random(42);
+        List<RetrievedDocument> sources = new ArrayList<>(RESULTS);
+        for (int i = 0; i < RESULTS; i++) {
+            Map<String, Object> metadata = new HashMap<>();
+            metadata.put("document_id", "doc-" + i / 4);
+            metadata.put("title", "Summary of Benefits and Coverage " + i / 4);
+            metadata.put("source", "sbc-" + i / 4 + ".pdf");
+            metadata.put("chunk_index", i % 4);
+            metadata.put("indexed_at", 1_700_000_000_000L + i);
+            sources.add(new RetrievedDocument("chunk-" + i, text(random, CHUNK_CHARS), 0.95 - i * 0.01, metadata));
+        }
+        queryResponse = QueryResponse.success(text(random, 1500), sources, 0.87, 2450,
+                "anthropic.claude-3-sonnet-20240229-v1:0");
+
+        List<Float> embedding = new ArrayList<>(DIMENSIONS);
+        for (int i = 0; i < DIMENSIONS; i++) {
+            embedding.add((float) random.nextGaussian());
+        }
+        documentChunk = new DocumentChunk("chunk-0", text(random, CHUNK_CHARS), embedding, "sbc-2024.pdf", 0);
+
+        queryResponseJson = apiMapper.writeValueAsString(queryResponse);
+        documentChunkJson = ingestionMapper.writeValueAsString(documentChunk);
+        fullSearchResponseJson = searchResponse(sources, random, true);
+        projectedSearchResponseJson = searchResponse(sources, random, false);
+    }
+
+    /**
+     * OpenSearch response for 20 hits, with or without the stored vector in {@code _source}
+     */
+    private String searchResponse(List<RetrievedDocument> sources, Random random, boolean withVector)
+            throws JsonProcessingException {
+        ObjectNode response = apiMapper.createObjectNode();
+        ArrayNode hits = response.putObject("hits").putArray("hits");
+        for (RetrievedDocument source : sources) {
+            ObjectNode hit = hits.addObject().put("_index", "documents").put("_id", source.id()).put("_score", source.score());
+            ObjectNode document = hit.putObject("_source").put("text", source.content());
+            document.set("metadata", apiMapper.valueToTree(source.metadata()));
+            if (withVector) {
+                ArrayNode vector = document.putArray("vector");
+                for (int i = 0; i < DIMENSIONS; i++) {
+                    vector.add((float) random.nextGaussian());
+                }
+            }
+        }
+        return apiMapper.writeValueAsString(response);
+    }
+
+    @Benchmark
+    public byte[] serializeQueryResponse() throws JsonProcessingException {
+        return apiMapper.writeValueAsBytes(queryResponse);
+    }
+
+    @Benchmark
+    public QueryResponse deserializeQueryResponse() throws JsonProcessingException {
+        return apiMapper.readValue(queryResponseJson, QueryResponse.class);
+    }
+
+    @Benchmark
+    public byte[] serializeDocumentChunk() throws JsonProcessingException {
+        return ingestionMapper.writeValueAsBytes(documentChunk);
+    }
+
+    @Benchmark
+    public DocumentChunk deserializeDocumentChunk() throws JsonProcessingException {
+        return ingestionMapper.readValue(documentChunkJson, DocumentChunk.class);
+    }
+
+    @Benchmark
+    public JsonNode parseFullSearchResponse() throws JsonProcessingException {
+        return apiMapper.readTree(fullSearchResponseJson);
+    }
+
+    @Benchmark
+    public JsonNode parseProjectedSearchResponse() throws JsonProcessingException {
+        return apiMapper.readTree(projectedSearchResponseJson);
+    }
+
+    private static String text(Random random, int length) {
+        String[] words = {"coverage", "deductible", "copayment", "network", "provider", "benefit",
+                "plan", "member", "claim", "prescription", "specialist", "preventive", "annual", "limit"};
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(words[random.nextInt(words.length)]);
+            text.append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        return text.substring(0, length);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SerializationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.ragapi.service;
+
+import com.example.ragapi.model.RetrievedDocument;
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.DocumentSplitter;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.segment.TextSegment;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.opensearch.client.opensearch.core.search.Hit;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for the per-query and per-document service hot paths.
+ *
+ * Payloads match production: 1536-dim Titan vectors, 1000-char chunks and 20 retrieved
+ * results. Services are built without their Bedrock/OpenSearch collaborators, which none
+ * of the measured methods touch. Run with {@code -prof gc} to see allocation per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ServiceHotPathBenchmark {
+
+    static final int DIMENSIONS = 1536;
+    static final int CHUNK_CHARS = 1000;
+    static final int RESULTS = 20;
+
+    private EmbeddingService embeddingService;
+    private ClaudeService claudeService;
+    private DocumentService documentService;
+    private VectorSearchService vectorSearchService;
+    private DocumentSplitter splitter;
+
+    private List<Float> queryEmbedding;
+    private List<Float> chunkEmbedding;
+    private String rawQuestion;
+    private String rawChunk;
+    private List<RetrievedDocument> retrievedDocs;
+    private List<Hit<VectorSearchService.ProjectedSource>> hits;
+    private Map<String, Object> uploadMetadata;
+    private Document document;
+
+    @Setup
+    public void setUp() {
+        embeddingService = new EmbeddingService(null, null, null);
+        claudeService = new ClaudeService(null, null, null);
+        documentService = new DocumentService(null, null, null);
+        vectorSearchService = new VectorSearchService(null, null, null, null, null, null, null, null);
+        splitter = DocumentSplitters.recursive(CHUNK_CHARS, 200);
+
+        Random random = new Random(42);
+        queryEmbedding = randomVector(random);
+        chunkEmbedding = randomVector(random);
+        rawQuestion = "  What is the\tdeductible for   out-of-network\n\nspecialist visits under my plan?  ";
+        rawChunk = "  " + text(random, CHUNK_CHARS).replace(". ", ".\n\n\t") + "  ";
+
+        retrievedDocs = new ArrayList<>(RESULTS);
+        hits = new ArrayList<>(RESULTS);
+        for (int i = 0; i < RESULTS; i++) {
+            Map<String, Object> metadata = chunkMetadata(i);
+            String content = text(random, CHUNK_CHARS);
+            double score = 0.95 - i * 0.01;
+            retrievedDocs.add(new RetrievedDocument("chunk-" + i, content, score, metadata));
+            String hitId = "hit-" + i;
+            hits.add(Hit.of(hit -> hit.index("documents").id(hitId).score(score)
+                    .source(new VectorSearchService.ProjectedSource(content, metadata))));
+        }
+
+        uploadMetadata = new HashMap<>();
+        uploadMetadata.put("title", "Summary of Benefits and Coverage");
+        uploadMetadata.put("source", "sbc-2024.pdf");
+        uploadMetadata.put("coverage_package_code", "PPO-GOLD");
+        uploadMetadata.put("state_code", "CA");
+
+        // A 40-page benefits booklet is roughly 100k characters
+        document = Document.from(text(random, 100_000));
+    }
+
+    @Benchmark
+    public double calculateSimilarity() {
+        return embeddingService.calculateSimilarity(queryEmbedding, chunkEmbedding);
+    }
+
+    @Benchmark
+    public String preprocessQuestion() {
+        return embeddingService.preprocessText(rawQuestion);
+    }
+
+    @Benchmark
+    public String preprocessChunk() {
+        return embeddingService.preprocessText(rawChunk);
+    }
+
+    @Benchmark
+    public String buildContext() {
+        return claudeService.buildContext(retrievedDocs);
+    }
+
+    @Benchmark
+    public Map<String, Object> enrichMetadata() {
+        return documentService.enrichMetadata(uploadMetadata, "doc-1");
+    }
+
+    @Benchmark
+    public List<TextSegment> chunkDocument() {
+        return splitter.split(document);
+    }
+
+    @Benchmark
+    public void convertToRetrievedDocuments(Blackhole blackhole) {
+        for (Hit<VectorSearchService.ProjectedSource> hit : hits) {
+            blackhole.consume(vectorSearchService.toRetrievedDocument(hit));
+        }
+    }
+
+    static List<Float> randomVector(Random random) {
+        List<Float> vector = new ArrayList<>(DIMENSIONS);
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector.add((float) random.nextGaussian());
+        }
+        return vector;
+    }
+
+    static String text(Random random, int length) {
+        String[] words = {"coverage", "deductible", "copayment", "network", "provider", "benefit",
+                "plan", "member", "claim", "prescription", "specialist", "preventive", "annual", "limit"};
+        StringBuilder text = new StringBuilder(length + 16);
+        while (text.length() < length) {
+            text.append(words[random.nextInt(words.length)]);
+            text.append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        return text.substring(0, length);
+    }
+
+    static Map<String, Object> chunkMetadata(int index) {
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("id", "chunk-" + index);
+        metadata.put("document_id", "doc-" + index / 4);
+        metadata.put("title", "Summary of Benefits and Coverage " + index / 4);
+        metadata.put("source", "sbc-" + index / 4 + ".pdf");
+        metadata.put("chunk_index", String.valueOf(index % 4));
+        metadata.put("coverage_package_code", "PPO-GOLD");
+        metadata.put("state_code", "CA");
+        return metadata;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ServiceHotPathBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
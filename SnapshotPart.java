@@ -0,0 +1,153 @@
+package com.example.ragapi.snapshot;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Binary format of one snapshot part file.
+ *
+ * A gzip stream holding a header (magic, version, vector dimension) followed by records
+ * of id, text and metadata JSON as length-prefixed UTF-8 and the vector as raw float32,
+ * and a terminating zero byte. Vectors take 4 bytes per dimension instead of the 10 to 12
+ * characters each costs in OpenSearch JSON. Records are streamed one at a time.
+ */
+final class SnapshotPart {
+
+    private static final int MAGIC = 0x52534E50; // "RSNP"
+    private static final short VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private SnapshotPart() {
+    }
+
+    /**
+     * One chunk as stored in the index
+     */
+    record Chunk(
+            String id,
+            String text,
+            Map<String, Object> metadata,
+            float[] vector
+    ) {}
+
+    static final class Writer implements Closeable {
+
+        private final DataOutputStream out;
+        private final int dimension;
+        private int records;
+
+        Writer(Path file, int dimension) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(file), BUFFER_SIZE), BUFFER_SIZE));
+            this.dimension = dimension;
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeInt(dimension);
+        }
+
+        void write(Chunk chunk) throws IOException {
+            if (chunk.vector().length != dimension) {
+                throw new IOException("Chunk " + chunk.id() + " has " + chunk.vector().length
+                        + " dimensions, snapshot has " + dimension);
+            }
+            out.writeByte(1);
+            writeString(chunk.id());
+            writeString(chunk.text());
+            writeString(chunk.metadata() != null ? MAPPER.writeValueAsString(chunk.metadata()) : null);
+            for (float value : chunk.vector()) {
+                out.writeFloat(value);
+            }
+            records++;
+        }
+
+        int records() {
+            return records;
+        }
+
+        private void writeString(String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.writeByte(0);
+            out.close();
+        }
+    }
+
+    static final class Reader implements Closeable {
+
+        private final DataInputStream in;
+        private final int dimension;
+
+        Reader(Path file) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(
+                    new GZIPInputStream(Files.newInputStream(file), BUFFER_SIZE), BUFFER_SIZE));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a snapshot part: " + file);
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot part version " + version + ": " + file);
+            }
+            this.dimension = in.readInt();
+        }
+
+        /**
+         * Next chunk, or null at the end of the part
+         *
+         * @throws EOFException if the part was truncated
+         */
+        Chunk next() throws IOException {
+            if (in.readByte() == 0) {
+                return null;
+            }
+            String id = readString();
+            String text = readString();
+            String metadata = readString();
+            float[] vector = new float[dimension];
+            for (int i = 0; i < dimension; i++) {
+                vector[i] = in.readFloat();
+            }
+            return new Chunk(id, text,
+                    metadata != null ? MAPPER.readValue(metadata, new TypeReference<Map<String, Object>>() {}) : null,
+                    vector);
+        }
+
+        private String readString() throws IOException {
+            int length = in.readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
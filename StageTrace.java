@@ -0,0 +1,108 @@
+package com.example.ragapi.metrics;
+
+import com.example.ragapi.model.RequestTrace;
+import com.example.ragapi.model.StageTiming;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Start and end timestamps of each pipeline stage for the request on the current thread.
+ *
+ * One instance per thread is allocated on first use and reset for every request, so
+ * recording a stage is a few array writes with no allocation. Fan-out threads record into
+ * the request thread's instance through {@link PipelineContext}, so writes are synchronized. {@link PipelineMetrics}
+ * feeds it from the same measurements it publishes as timers. Nothing is formatted until
+ * {@link #snapshot()} is called for a caller that asked to see the trace.
+ */
+public final class StageTrace {
+
+    private static final ThreadLocal<StageTrace> CURRENT = new ThreadLocal<>();
+    private static final PipelineMetrics.Stage[] STAGES = PipelineMetrics.Stage.values();
+
+    private final long[] firstStartNanos = new long[STAGES.length];
+    private final long[] lastEndNanos = new long[STAGES.length];
+    private final long[] totalNanos = new long[STAGES.length];
+    private final int[] calls = new int[STAGES.length];
+
+    private String trackingId;
+    private long beginNanos;
+    private long beginEpochMs;
+    private volatile boolean active;
+
+    private StageTrace() {
+    }
+
+    /**
+     * Start tracing a request on the current thread
+     */
+    public static StageTrace begin(String trackingId) {
+        StageTrace trace = CURRENT.get();
+        if (trace == null) {
+            trace = new StageTrace();
+            CURRENT.set(trace);
+        }
+        trace.reset(trackingId);
+        return trace;
+    }
+
+    /**
+     * Trace of the request running on this thread, or null outside a traced request
+     */
+    public static StageTrace active() {
+        StageTrace trace = CURRENT.get();
+        return trace != null && trace.active ? trace : null;
+    }
+
+    /**
+     * Stop tracing on the current thread; the instance is kept for the thread's next request
+     */
+    public static void end() {
+        StageTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.active = false;
+        }
+    }
+
+    synchronized void record(PipelineMetrics.Stage stage, long startNanos, long endNanos) {
+        int index = stage.ordinal();
+        if (calls[index] == 0) {
+            firstStartNanos[index] = startNanos;
+        }
+        lastEndNanos[index] = endNanos;
+        totalNanos[index] += endNanos - startNanos;
+        calls[index]++;
+    }
+
+    /**
+     * Immutable copy of the stages recorded so far, in pipeline order
+     */
+    public synchronized RequestTrace snapshot() {
+        List<StageTiming> stages = new ArrayList<>(STAGES.length);
+        for (int i = 0; i < STAGES.length; i++) {
+            if (calls[i] > 0) {
+                stages.add(new StageTiming(
+                        STAGES[i].tagValue(),
+                        (firstStartNanos[i] - beginNanos) / 1_000,
+                        (lastEndNanos[i] - beginNanos) / 1_000,
+                        totalNanos[i] / 1_000,
+                        calls[i]));
+            }
+        }
+        return new RequestTrace(trackingId, beginEpochMs, stages);
+    }
+
+    boolean isActive() {
+        return active;
+    }
+
+    private synchronized void reset(String trackingId) {
+        Arrays.fill(calls, 0);
+        Arrays.fill(totalNanos, 0L);
+        this.trackingId = trackingId;
+        this.beginNanos = System.nanoTime();
+        this.beginEpochMs = System.currentTimeMillis();
+        this.active = true;
+    }
+}
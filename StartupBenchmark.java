@@ -0,0 +1,132 @@
+package com.example.ragapi.perf;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures time from JVM launch to the first successful {@code /api/v1/rag/query} response.
+ *
+ * Bedrock is replaced by an in-process {@link BedrockStandIn}; OpenSearch is expected on
+ * {@code http://localhost:9200} (see docker-compose.yml). Usage:
+ * <pre>
+ *   java -cp target/rag-api-langchain4j-1.0.0-aws.jar com.example.ragapi.perf.StartupBenchmark \
+ *        [jvm|cds|aot|cds-aot|native] [runs] [artifact]
+ * </pre>
+ * {@code artifact} is the shaded jar for JVM modes and the executable for {@code native}.
+ */
+public class StartupBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupBenchmark.class);
+
+    private static final String DEFAULT_JAR = "target/rag-api-langchain4j-1.0.0-aws.jar";
+    private static final String CDS_ARCHIVE = "target/app-cds.jsa";
+    private static final String QUERY_BODY =
+            "{\"question\":\"What does the dental plan cover?\",\"max_results\":3,\"threshold\":0.0}";
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(120);
+
+    public static void main(String[] args) throws Exception {
+        String mode = args.length > 0 ? args[0] : "jvm";
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        String artifact = args.length > 2 ? args[2] : DEFAULT_JAR;
+
+        HttpClient http = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(200))
+                .build();
+
+        List<Long> samples = new ArrayList<>();
+        try (BedrockStandIn bedrock = new BedrockStandIn(0, 1536).start()) {
+            for (int run = 1; run <= runs; run++) {
+                int port = freePort();
+                List<String> command = command(mode, artifact, port, bedrock.endpoint());
+
+                long launchNanos = System.nanoTime();
+                Process process = new ProcessBuilder(command)
+                        .redirectErrorStream(true)
+                        .redirectOutput(new File("target/startup-benchmark-" + mode + ".log"))
+                        .start();
+                try {
+                    long elapsedMs = awaitFirstQuery(http, port, launchNanos);
+                    samples.add(elapsedMs);
+                    logger.info("[{}] run {}/{}: first successful query after {} ms", mode, run, runs, elapsedMs);
+                } finally {
+                    process.destroy();
+                    process.waitFor();
+                }
+            }
+        }
+
+        long[] sorted = samples.stream().mapToLong(Long::longValue).sorted().toArray();
+        logger.info("[{}] runs={} min={} ms median={} ms p90={} ms max={} ms",
+                mode, sorted.length, sorted[0], percentile(sorted, 0.5), percentile(sorted, 0.9),
+                sorted[sorted.length - 1]);
+    }
+
+    private static List<String> command(String mode, String artifact, int port, String bedrockEndpoint) {
+        List<String> command = new ArrayList<>();
+        if ("native".equals(mode)) {
+            command.add(artifact);
+        } else {
+            command.add(System.getProperty("java.home") + "/bin/java");
+            if (mode.startsWith("cds")) {
+                command.add("-XX:SharedArchiveFile=" + CDS_ARCHIVE);
+                command.add("-Xshare:auto");
+            }
+            if (mode.endsWith("aot")) {
+                command.add("-Dspring.aot.enabled=true");
+            }
+            command.addAll(Arrays.asList("-cp", artifact,
+                    "com.example.ragapi.RagApiApplication"));
+        }
+        command.add("--server.port=" + port);
+        command.add("--bedrock.endpoint-override=" + bedrockEndpoint);
+        command.add("--opensearch.endpoint=http://localhost:9200");
+        command.add("--aws.region=us-east-1");
+        command.add("--inference-history.allow-in-memory-datasource=true");
+        return command;
+    }
+
+    private static long awaitFirstQuery(HttpClient http, int port, long launchNanos) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/rag/query"))
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(QUERY_BODY))
+                .build();
+
+        long deadline = launchNanos + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                if (response.statusCode() == 200) {
+                    return (System.nanoTime() - launchNanos) / 1_000_000;
+                }
+            } catch (IOException e) {
+                // Not listening yet
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Service did not answer a query within " + STARTUP_TIMEOUT);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static int freePort() throws Exception {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
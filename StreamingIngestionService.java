@@ -0,0 +1,152 @@
+package com.example.ragapi.service;
+
+import com.example.ragapi.model.DocumentDto;
+import com.example.ragapi.model.StreamIndexResult;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Indexes a stream of NDJSON documents without holding the batch in memory.
+ *
+ * Documents are parsed one at a time from the request body and handed to at most
+ * {@code concurrency} indexing tasks; while all are busy, parsing stops, so the client is
+ * held back by TCP flow control instead of the server buffering its input. Each result
+ * is written and flushed as its document completes, in completion order, tagged with the
+ * document's position in the input.
+ */
+@Service
+public class StreamingIngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingIngestionService.class);
+
+    private final DocumentService documentService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${rag.ingestion.stream.concurrency:8}")
+    private int concurrency;
+
+    @Value("${rag.ingestion.stream.max-document-chars:1000000}")
+    private int maxDocumentChars;
+
+    public StreamingIngestionService(DocumentService documentService, ObjectMapper objectMapper) {
+        this.documentService = documentService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Index every document of the input and write one result line per document to the output
+     *
+     * @return totals once the input is exhausted and every document has completed
+     */
+    public Summary indexStream(InputStream input, OutputStream output) throws IOException {
+        long startTime = System.currentTimeMillis();
+        AtomicInteger successful = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        Semaphore permits = new Semaphore(concurrency);
+        int sequence = 0;
+
+        try (SequenceWriter results = objectMapper.writer().withRootValueSeparator("\n").writeValues(output);
+             JsonParser parser = objectMapper.getFactory().createParser(input);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            MappingIterator<DocumentDto> documents = objectMapper.readerFor(DocumentDto.class).readValues(parser);
+            while (true) {
+                DocumentDto document;
+                try {
+                    if (!documents.hasNextValue()) {
+                        break;
+                    }
+                    document = documents.nextValue();
+                } catch (JsonProcessingException e) {
+                    // The stream cannot be resynchronised after malformed JSON; report and stop reading
+                    write(results, StreamIndexResult.failure(sequence, null, "Malformed NDJSON: " + e.getOriginalMessage(), 0));
+                    failed.incrementAndGet();
+                    break;
+                }
+
+                int position = sequence++;
+                String rejection = validate(document);
+                if (rejection != null) {
+                    write(results, StreamIndexResult.failure(position, document != null ? document.id() : null, rejection, 0));
+                    failed.incrementAndGet();
+                    continue;
+                }
+
+                permits.acquire();
+                executor.submit(() -> {
+                    long documentStart = System.currentTimeMillis();
+                    try {
+                        String documentId = documentService.indexDocument(document.content(), document.metadata());
+                        successful.incrementAndGet();
+                        write(results, StreamIndexResult.success(position, document.id(), documentId,
+                                System.currentTimeMillis() - documentStart));
+                    } catch (UncheckedIOException e) {
+                        // The client went away; nothing left to report to
+                        throw e;
+                    } catch (Exception e) {
+                        failed.incrementAndGet();
+                        logger.warn("Failed to index streamed document {}", position, e);
+                        write(results, StreamIndexResult.failure(position, document.id(), "Failed to index document",
+                                System.currentTimeMillis() - documentStart));
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while indexing document stream", e);
+        }
+
+        Summary summary = new Summary(sequence, successful.get(), failed.get(), System.currentTimeMillis() - startTime);
+        logger.info("Indexed document stream: {}/{} successful in {}ms", summary.successful(), summary.total(),
+                summary.processingTimeMs());
+        return summary;
+    }
+
+    private String validate(DocumentDto document) {
+        if (document == null || document.content() == null || document.content().isBlank()) {
+            return "Content cannot be blank";
+        }
+        if (document.content().length() > maxDocumentChars) {
+            return "Content must be less than " + maxDocumentChars + " characters";
+        }
+        return null;
+    }
+
+    private static void write(SequenceWriter results, StreamIndexResult result) {
+        try {
+            synchronized (results) {
+                results.write(result);
+                results.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write streamed index result", e);
+        }
+    }
+
+    /**
+     * Totals of one stream
+     */
+    public record Summary(
+            int total,
+            int successful,
+            int failed,
+            long processingTimeMs
+    ) {}
+}
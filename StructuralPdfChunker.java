@@ -0,0 +1,348 @@
+package com.example.ragpoc.service;
+
+import dev.langchain4j.data.document.Document;
+import dev.langchain4j.data.document.Metadata;
+import dev.langchain4j.data.document.splitter.DocumentSplitters;
+import dev.langchain4j.data.segment.TextSegment;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.apache.pdfbox.text.TextPosition;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * Cuts a PDF into chunks along its layout instead of at fixed character counts.
+ *
+ * Lines are rebuilt from PDFBox text positions. A line set larger than the body font, or
+ * a short line set entirely in bold, is a heading; larger headings rank higher. A line
+ * whose words are separated by wide horizontal gaps is a table row, and consecutive rows
+ * form a table. Chunks end at headings, never split a table row, and repeat a table's
+ * first row when the table continues in the next chunk. A chunk still shorter than
+ * {@code minChunkChars} at a heading keeps going: the heading becomes a line of the chunk
+ * and its path is added to the chunk's paths. Only paragraphs longer than a whole chunk are
+ * split inside. Each chunk starts with and carries every heading path it covers, one per
+ * line, e.g. {@code Medical Benefits > Prescription Drugs}; {@code maxChunkChars} counts
+ * those lines too.
+ *
+ * One instance follows one document; heading state carries over between page ranges.
+ */
+class StructuralPdfChunker extends PDFTextStripper {
+
+    static final String HEADING_PATH = "heading_path";
+
+    private static final float HEADING_SIZE_RATIO = 1.15f;
+    private static final float COLUMN_GAP_SPACES = 3.0f;
+    private static final int MAX_BOLD_HEADING_CHARS = 120;
+
+    private final int maxChunkChars;
+    private final int minChunkChars;
+
+    /** Characters set per font size (half points), to find the body font */
+    private final Map<Integer, Integer> charsBySize = new HashMap<>();
+    /** Heading font sizes seen so far, largest first; bold body-size headings rank last */
+    private final TreeSet<Integer> headingSizes = new TreeSet<>((a, b) -> Integer.compare(b, a));
+    private final Deque<Heading> headingPath = new ArrayDeque<>();
+
+    private final List<Line> lines = new ArrayList<>();
+    private final List<Word> currentLine = new ArrayList<>();
+    private boolean paragraphStart = true;
+
+    StructuralPdfChunker(int maxChunkChars, int minChunkChars) {
+        this.maxChunkChars = maxChunkChars;
+        this.minChunkChars = minChunkChars;
+        setSortByPosition(true);
+    }
+
+    /**
+     * Chunks of the given pages (1-based, inclusive)
+     */
+    List<TextSegment> chunk(PDDocument pdf, int startPage, int endPage) throws IOException {
+        lines.clear();
+        setStartPage(startPage);
+        setEndPage(endPage);
+        writeText(pdf, Writer.nullWriter());
+        return assemble();
+    }
+
+    @Override
+    protected void writeString(String text, List<TextPosition> textPositions) {
+        if (text.isBlank() || textPositions.isEmpty()) {
+            return;
+        }
+        TextPosition first = textPositions.get(0);
+        TextPosition last = textPositions.get(textPositions.size() - 1);
+        float size = 0;
+        boolean bold = true;
+        for (TextPosition position : textPositions) {
+            size += position.getFontSizeInPt();
+            bold &= isBold(position);
+        }
+        size /= textPositions.size();
+        currentLine.add(new Word(text, first.getXDirAdj(), last.getXDirAdj() + last.getWidthDirAdj(),
+                first.getWidthOfSpace(), size, bold));
+        charsBySize.merge(Math.round(size * 2), text.length(), Integer::sum);
+    }
+
+    @Override
+    protected void writeLineSeparator() {
+        flushLine();
+    }
+
+    @Override
+    protected void writeParagraphStart() {
+        flushLine();
+        paragraphStart = true;
+    }
+
+    @Override
+    protected void writeParagraphEnd() {
+        flushLine();
+        paragraphStart = true;
+    }
+
+    @Override
+    protected void endPage(PDPage page) throws IOException {
+        flushLine();
+        super.endPage(page);
+    }
+
+    private void flushLine() {
+        if (currentLine.isEmpty()) {
+            return;
+        }
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder(currentLine.get(0).text());
+        float size = 0;
+        boolean bold = true;
+        for (int i = 0; i < currentLine.size(); i++) {
+            Word word = currentLine.get(i);
+            size += word.size();
+            bold &= word.bold();
+            if (i == 0) {
+                continue;
+            }
+            Word previous = currentLine.get(i - 1);
+            float spaceWidth = previous.spaceWidth() > 0 ? previous.spaceWidth() : previous.size() / 4;
+            if (word.startX() - previous.endX() > COLUMN_GAP_SPACES * spaceWidth) {
+                cells.add(cell.toString().strip());
+                cell.setLength(0);
+            } else {
+                cell.append(' ');
+            }
+            cell.append(word.text());
+        }
+        cells.add(cell.toString().strip());
+        lines.add(new Line(cells, size / currentLine.size(), bold, paragraphStart));
+        currentLine.clear();
+        paragraphStart = false;
+    }
+
+    private List<TextSegment> assemble() {
+        float bodySize = charsBySize.entrySet().stream()
+                .max(Map.Entry.comparingByValue())
+                .map(entry -> entry.getKey() / 2f)
+                .orElse(0f);
+
+        Assembler chunks = new Assembler();
+        List<String> tableHeader = null;
+        for (int i = 0; i < lines.size(); i++) {
+            Line line = lines.get(i);
+            boolean tableRow = line.cells().size() > 1;
+            boolean larger = line.size() >= bodySize * HEADING_SIZE_RATIO;
+            boolean heading = !tableRow && (larger
+                    || (line.bold() && line.text().length() <= MAX_BOLD_HEADING_CHARS && !line.text().endsWith(".")));
+
+            if (heading) {
+                // Headings wrapped over several lines arrive as consecutive lines in the same style
+                StringBuilder text = new StringBuilder(line.text());
+                while (i + 1 < lines.size() && sameHeadingStyle(line, lines.get(i + 1))) {
+                    text.append(' ').append(lines.get(++i).text());
+                }
+                int level = headingLevel(larger ? Math.round(line.size() * 2) : Math.round(bodySize * 2));
+                while (!headingPath.isEmpty() && headingPath.peekLast().level() >= level) {
+                    headingPath.removeLast();
+                }
+                headingPath.addLast(new Heading(text.toString(), level));
+                chunks.startSection(text.toString());
+                tableHeader = null;
+            } else if (tableRow) {
+                if (tableHeader == null) {
+                    tableHeader = line.cells();
+                }
+                chunks.appendRow(String.join(" | ", line.cells()),
+                        line.cells() == tableHeader ? null : String.join(" | ", tableHeader));
+            } else {
+                tableHeader = null;
+                chunks.appendText(line.text(), line.paragraphStart());
+            }
+        }
+        chunks.emit();
+        return chunks.segments;
+    }
+
+    private int headingLevel(int halfPoints) {
+        headingSizes.add(halfPoints);
+        return headingSizes.headSet(halfPoints, true).size();
+    }
+
+    private static boolean sameHeadingStyle(Line heading, Line next) {
+        return next.cells().size() == 1 && !next.paragraphStart()
+                && next.bold() == heading.bold() && Math.abs(next.size() - heading.size()) < 0.5f;
+    }
+
+    private static boolean isBold(TextPosition position) {
+        if (position.getFont() == null || position.getFont().getName() == null) {
+            return false;
+        }
+        String font = position.getFont().getName().toLowerCase(Locale.ROOT);
+        return font.contains("bold") || font.contains("black") || font.contains("heavy");
+    }
+
+    private String currentPath() {
+        return headingPath.stream().map(Heading::text).collect(Collectors.joining(" > "));
+    }
+
+    /**
+     * Accumulates lines into chunks of at most maxChunkChars, heading path lines included
+     */
+    private final class Assembler {
+
+        private final List<TextSegment> segments = new ArrayList<>();
+        private final StringBuilder body = new StringBuilder();
+        /** Heading paths the chunk covers, in order */
+        private final List<String> paths = new ArrayList<>();
+        /** Where a heading written into the body starts, until a line follows it; -1 otherwise */
+        private int trailingHeading = -1;
+        private boolean trailingHeadingAddedPath;
+
+        /**
+         * Cut at the heading just entered, unless the chunk is still too short; then the heading
+         * is written into the chunk and its path recorded next to the earlier ones
+         */
+        void startSection(String heading) {
+            if (body.isEmpty()) {
+                return;
+            }
+            String path = currentPath();
+            List<String> extended = new ArrayList<>(paths);
+            if (!extended.contains(path)) {
+                extended.add(path);
+            }
+            if (body.length() >= minChunkChars
+                    || prefixLength(extended) + body.length() + 1 + heading.length() > maxChunkChars) {
+                emit();
+                return;
+            }
+            trailingHeading = body.length();
+            trailingHeadingAddedPath = extended.size() > paths.size();
+            paths.clear();
+            paths.addAll(extended);
+            body.append('\n').append(heading);
+        }
+
+        void appendText(String text, boolean paragraphStart) {
+            int pieceChars = Math.max(maxChunkChars / 4, maxChunkChars - prefixLength(List.of(currentPath())));
+            if (text.length() > pieceChars) {
+                emit();
+                // A paragraph longer than a chunk is the only place cut by length
+                for (TextSegment piece : DocumentSplitters.recursive(pieceChars, 0).split(Document.from(text))) {
+                    append(piece.text(), true);
+                    emit();
+                }
+                return;
+            }
+            if (text.length() > room()) {
+                emit();
+            }
+            append(text, paragraphStart);
+        }
+
+        void appendRow(String row, String header) {
+            if (row.length() > room()) {
+                emit();
+                if (header != null) {
+                    append(header, true);
+                }
+            }
+            append(row, true);
+        }
+
+        /**
+         * Characters the next line may take without pushing the chunk past maxChunkChars
+         */
+        private int room() {
+            if (body.isEmpty()) {
+                return maxChunkChars - prefixLength(List.of(currentPath()));
+            }
+            return maxChunkChars - prefixLength(paths) - body.length() - 1;
+        }
+
+        private void append(String text, boolean newLine) {
+            if (body.isEmpty()) {
+                paths.clear();
+                paths.add(currentPath());
+            } else {
+                body.append(newLine ? '\n' : ' ');
+            }
+            body.append(text);
+            trailingHeading = -1;
+        }
+
+        void emit() {
+            if (trailingHeading >= 0) {
+                // Nothing of that section made it into this chunk; the next chunk's path names it
+                body.setLength(trailingHeading);
+                if (trailingHeadingAddedPath) {
+                    paths.remove(paths.size() - 1);
+                }
+                trailingHeading = -1;
+            }
+            if (body.toString().isBlank()) {
+                body.setLength(0);
+                return;
+            }
+            String prefix = joinPaths(paths);
+            String text = prefix.isEmpty() ? body.toString() : prefix + "\n\n" + body;
+            Metadata metadata = new Metadata();
+            if (!prefix.isEmpty()) {
+                metadata.add(HEADING_PATH, prefix);
+            }
+            segments.add(TextSegment.from(text, metadata));
+            body.setLength(0);
+            paths.clear();
+        }
+
+        private static String joinPaths(List<String> paths) {
+            return paths.stream().filter(path -> !path.isEmpty()).collect(Collectors.joining("\n"));
+        }
+
+        /**
+         * Length of the path lines and the blank line that separates them from the body
+         */
+        private static int prefixLength(List<String> paths) {
+            String prefix = joinPaths(paths);
+            return prefix.isEmpty() ? 0 : prefix.length() + 2;
+        }
+    }
+
+    private record Word(String text, float startX, float endX, float spaceWidth, float size, boolean bold) {}
+
+    private record Line(List<String> cells, float size, boolean bold, boolean paragraphStart) {
+        String text() {
+            return String.join(" ", cells);
+        }
+    }
+
+    private record Heading(String text, int level) {}
+}
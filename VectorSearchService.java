@@ -1,20 +1,33 @@
 package com.example.ragapi.service;
 
+import com.example.ragapi.metrics.PipelineContext;
+import com.example.ragapi.metrics.PipelineMetrics;
 import com.example.ragapi.model.*;
 import dev.langchain4j.data.document.Metadata;
 import dev.langchain4j.data.embedding.Embedding;
 import dev.langchain4j.data.segment.TextSegment;
-import dev.langchain4j.store.embedding.EmbeddingMatch;
-import dev.langchain4j.store.embedding.EmbeddingSearchRequest;
-import dev.langchain4j.store.embedding.EmbeddingSearchResult;
 import dev.langchain4j.store.embedding.opensearch.OpenSearchEmbeddingStore;
+import org.opensearch.client.json.JsonData;
+import org.opensearch.client.opensearch.OpenSearchClient;
+import org.opensearch.client.opensearch._types.FieldValue;
+import org.opensearch.client.opensearch._types.query_dsl.Query;
+import org.opensearch.client.opensearch.core.SearchRequest;
+import org.opensearch.client.opensearch.core.search.Hit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class VectorSearchService {
@@ -22,17 +35,63 @@ public class VectorSearchService {
     private static final Logger logger = LoggerFactory.getLogger(VectorSearchService.class);
     
     private final OpenSearchEmbeddingStore embeddingStore;
+    private final OpenSearchClient openSearchClient;
     private final EmbeddingService embeddingService;
+    private final QueryVariantGenerator queryVariantGenerator;
+    private final IndexPartitioner indexPartitioner;
+    private final FederatedSearchService federatedSearch;
+    private final QueryCache queryCache;
+    private final PipelineMetrics pipelineMetrics;
+    private final ExecutorService executorService = Executors.newVirtualThreadPerTaskExecutor();
+    private final Executor requestExecutor = PipelineContext.propagating(executorService);
+    private final Map<String, OpenSearchEmbeddingStore> partitionStores = new ConcurrentHashMap<>();
     
     @Value("${rag.retrieval.default-results:5}")
     private int defaultMaxResults;
     
     @Value("${rag.retrieval.similarity-threshold:0.7}")
     private double defaultThreshold;
+    
+    @Value("${bedrock.embedding.model:amazon.titan-embed-text-v1}")
+    private String embeddingModelId;
+
+    @Value("${opensearch.index.name:documents}")
+    private String indexName;
+
+    /** Metadata keys fetched with each hit; empty fetches all metadata (never the vector) */
+    @Value("${rag.retrieval.metadata-fields:}")
+    private List<String> metadataFields;
+
+    @Value("${rag.multi-query.enabled:true}")
+    private boolean multiQueryEnabled;
+
+    @Value("${rag.multi-query.max-question-words:12}")
+    private int multiQueryMaxQuestionWords;
+
+    @Value("${rag.multi-query.max-variants:3}")
+    private int multiQueryMaxVariants;
+
+    @Value("${rag.multi-query.candidates-per-result:2}")
+    private int multiQueryCandidatesPerResult;
+
+    @Value("${rag.multi-query.rrf-k:60}")
+    private int rrfK;
 
-    public VectorSearchService(OpenSearchEmbeddingStore embeddingStore, EmbeddingService embeddingService) {
+    @Value("${rag.multi-query.deadline-ms:1500}")
+    private long multiQueryDeadlineMs;
+
+    public VectorSearchService(OpenSearchEmbeddingStore embeddingStore, OpenSearchClient openSearchClient,
+                               EmbeddingService embeddingService, QueryVariantGenerator queryVariantGenerator,
+                               IndexPartitioner indexPartitioner, FederatedSearchService federatedSearch,
+                               QueryCache queryCache, PipelineMetrics pipelineMetrics) {
         this.embeddingStore = embeddingStore;
+        this.openSearchClient = openSearchClient;
         this.embeddingService = embeddingService;
+        this.queryVariantGenerator = queryVariantGenerator;
+        this.indexPartitioner = indexPartitioner;
+        this.federatedSearch = federatedSearch;
+        this.queryCache = queryCache;
+        this.pipelineMetrics = pipelineMetrics;
     }
     
     /**
@@ -68,37 +127,28 @@ public class VectorSearchService {
             int maxResults,
             List<SearchFilter> filters,
             double threshold) {
+        return searchByEmbedding(queryEmbedding, maxResults, filters, threshold, SearchScope.UNSCOPED);
+    }
+    
+    /**
+     * Search for similar documents using pre-computed embedding, limited to the partitions the scope is entitled to
+     */
+    public List<RetrievedDocument> searchByEmbedding(
+            List<Float> queryEmbedding,
+            int maxResults,
+            List<SearchFilter> filters,
+            double threshold,
+            SearchScope scope) {
         
         try {
             logger.debug("Searching by embedding with {} dimensions, maxResults: {}, threshold: {}", 
                     queryEmbedding.size(), maxResults, threshold);
             
-            // Create embedding object
-            Embedding embedding = new Embedding(queryEmbedding);
-            
-            // Build search request
-            EmbeddingSearchRequest.Builder requestBuilder = EmbeddingSearchRequest.builder()
-                    .queryEmbedding(embedding)
-                    .maxResults(maxResults)
-                    .minScore(threshold);
-            
-            // Add metadata filters if provided
-            if (filters != null && !filters.isEmpty()) {
-                Metadata metadataFilter = buildMetadataFilter(filters);
-                requestBuilder.filter(metadataFilter);
-            }
-            
-            EmbeddingSearchRequest searchRequest = requestBuilder.build();
-            
-            // Execute search
-            EmbeddingSearchResult<TextSegment> searchResult = embeddingStore.search(searchRequest);
-            
-            logger.debug("Found {} documents", searchResult.matches().size());
-            
-            // Convert results to our domain model
-            return searchResult.matches().stream()
-                    .map(this::convertToRetrievedDocument)
-                    .collect(Collectors.toList());
+            List<RetrievedDocument> documents = pipelineMetrics.time(PipelineMetrics.Stage.RETRIEVAL, embeddingModelId,
+                    () -> knnSearch(queryEmbedding, maxResults, filters, threshold, scope));
+            logger.debug("Found {} documents", documents.size());
+            pipelineMetrics.recordRetrieval(documents);
+            return documents;
             
         } catch (Exception e) {
             logger.error("Error searching by embedding", e);
@@ -106,6 +156,164 @@ public class VectorSearchService {
         }
     }
     
+    /**
+     * Search for a user question whose embedding is already known, widening short
+     * questions into several query variants when multi-query retrieval is enabled.
+     * Results are served from the retrieval cache while fresh.
+     */
+    public List<RetrievedDocument> searchForQuestion(
+            String question,
+            List<Float> questionEmbedding,
+            int maxResults,
+            List<SearchFilter> filters,
+            double threshold,
+            SearchScope scope) {
+        
+        return queryCache.retrieval(new QueryCache.RetrievalKey(question, maxResults, filters, threshold, scope),
+                () -> searchQuestion(question, questionEmbedding, maxResults, filters, threshold, scope));
+    }
+    
+    private List<RetrievedDocument> searchQuestion(String question, List<Float> questionEmbedding, int maxResults,
+                                                   List<SearchFilter> filters, double threshold, SearchScope scope) {
+        if (!multiQueryEnabled || question.trim().split("\\s+").length > multiQueryMaxQuestionWords) {
+            return searchByEmbedding(questionEmbedding, maxResults, filters, threshold, scope);
+        }
+        return searchMultiQuery(question, questionEmbedding, maxResults, filters, threshold, scope);
+    }
+    
+    /**
+     * Multi-query retrieval: the question and its variants are searched concurrently on
+     * virtual threads and the rankings merged with reciprocal rank fusion. Variants are
+     * embedded and searched as soon as each is ready; whatever has finished when the
+     * deadline passes is fused, so a slow variant costs recall, never latency.
+     */
+    public List<RetrievedDocument> searchMultiQuery(
+            String question,
+            List<Float> questionEmbedding,
+            int maxResults,
+            List<SearchFilter> filters,
+            double threshold,
+            SearchScope scope) {
+        
+        try {
+            List<RetrievedDocument> documents = pipelineMetrics.time(PipelineMetrics.Stage.RETRIEVAL, embeddingModelId,
+                    () -> fusedSearch(question, questionEmbedding, maxResults, filters, threshold, scope));
+            pipelineMetrics.recordRetrieval(documents);
+            return documents;
+        } catch (Exception e) {
+            logger.error("Error in multi-query search", e);
+            throw new RuntimeException("Failed to search with query variants", e);
+        }
+    }
+    
+    private List<RetrievedDocument> fusedSearch(String question, List<Float> questionEmbedding, int maxResults,
+                                                List<SearchFilter> filters, double threshold, SearchScope scope) {
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(multiQueryDeadlineMs);
+        int candidates = Math.max(maxResults, maxResults * multiQueryCandidatesPerResult);
+        
+        CompletableFuture<List<RetrievedDocument>> original = CompletableFuture.supplyAsync(
+                () -> knnSearch(questionEmbedding, candidates, filters, threshold, scope), requestExecutor);
+        List<CompletableFuture<List<RetrievedDocument>>> searches = new ArrayList<>();
+        searches.add(original);
+        
+        List<String> variants = queryVariantGenerator.ruleBasedVariants(question, multiQueryMaxVariants);
+        for (String variant : variants) {
+            searches.add(CompletableFuture
+                    .supplyAsync(() -> embeddingService.generateEmbedding(variant), requestExecutor)
+                    .thenApplyAsync(embedding -> knnSearch(embedding, candidates, filters, threshold, scope),
+                            requestExecutor));
+        }
+        searches.add(queryVariantGenerator.llmRewrite(question).thenComposeAsync(rewrite -> rewrite
+                .map(variant -> CompletableFuture.supplyAsync(
+                        () -> knnSearch(embeddingService.generateEmbedding(variant), candidates, filters, threshold, scope),
+                        requestExecutor))
+                .orElseGet(() -> CompletableFuture.completedFuture(List.of())), requestExecutor));
+        
+        try {
+            CompletableFuture.allOf(searches.toArray(CompletableFuture[]::new))
+                    .get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            logger.debug("Multi-query deadline of {}ms passed, fusing finished searches", multiQueryDeadlineMs);
+        } catch (ExecutionException e) {
+            logger.debug("A query variant search failed: {}", e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted during multi-query search", e);
+        }
+        
+        List<List<RetrievedDocument>> rankings = new ArrayList<>();
+        for (CompletableFuture<List<RetrievedDocument>> search : searches) {
+            if (search.isDone() && !search.isCompletedExceptionally()) {
+                List<RetrievedDocument> ranking = search.join();
+                if (!ranking.isEmpty()) {
+                    rankings.add(ranking);
+                }
+            } else if (search != original) {
+                search.cancel(false);
+            }
+        }
+        
+        // Never return less than the single-query path would have
+        if (!original.isDone()) {
+            rankings.add(original.join());
+        } else if (original.isCompletedExceptionally() && rankings.isEmpty()) {
+            original.join();
+        }
+        
+        logger.debug("Fusing {} rankings from {} query variants", rankings.size(), variants.size() + 1);
+        return reciprocalRankFusion(rankings, rrfK, maxResults);
+    }
+    
+    /**
+     * Merge rankings by reciprocal rank fusion: each document scores the sum of
+     * {@code 1 / (k + rank)} over the rankings it appears in, and the {@code limit} best
+     * fused scores decide which documents are kept. The kept documents carry their best
+     * similarity score and are returned in descending order of it, like a single search,
+     * because confidence and model routing read the leading positions as the best matches.
+     */
+    static List<RetrievedDocument> reciprocalRankFusion(List<List<RetrievedDocument>> rankings, int k, int limit) {
+        Map<String, RetrievedDocument> best = new HashMap<>();
+        Map<String, Double> fused = new HashMap<>();
+        for (List<RetrievedDocument> ranking : rankings) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                RetrievedDocument document = ranking.get(rank);
+                fused.merge(document.id(), 1.0 / (k + rank + 1), Double::sum);
+                best.merge(document.id(), document, (current, candidate) ->
+                        candidate.score() > current.score() ? candidate : current);
+            }
+        }
+        return fused.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed()
+                        .thenComparing(entry -> -best.get(entry.getKey()).score()))
+                .limit(limit)
+                .map(entry -> best.get(entry.getKey()))
+                .sorted(Comparator.comparingDouble(RetrievedDocument::score).reversed())
+                .toList();
+    }
+    
+    private List<RetrievedDocument> knnSearch(List<Float> queryEmbedding, int maxResults,
+                                              List<SearchFilter> filters, double threshold, SearchScope scope) {
+        SearchRequest searchRequest = projectedSearchRequest(queryEmbedding, maxResults, filters, threshold, scope);
+        try {
+            // Federated clusters are searched concurrently and merged; partial results when one is slow
+            List<Hit<ProjectedSource>> hits = federatedSearch.enabled()
+                    ? federatedSearch.search(searchRequest, ProjectedSource.class, maxResults)
+                    : openSearchClient.search(searchRequest, ProjectedSource.class).hits().hits();
+            List<RetrievedDocument> documents = new ArrayList<>(hits.size());
+            Set<String> seen = new HashSet<>();
+            for (Hit<ProjectedSource> hit : hits) {
+                RetrievedDocument document = toRetrievedDocument(hit);
+                // A chunk may be stored in several partitions or clusters; hits arrive best first
+                if (seen.add(partitionCopyKey(document))) {
+                    documents.add(document);
+                }
+            }
+            return documents;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to query OpenSearch", e);
+        }
+    }
+    
     /**
      * Add documents to the vector store
      */
@@ -113,27 +321,32 @@ public class VectorSearchService {
         try {
             logger.info("Adding {} documents to vector store", documents.size());
             
-            List<TextSegment> segments = new ArrayList<>();
-            List<Embedding> embeddings = new ArrayList<>();
+            Map<String, List<TextSegment>> segmentsByIndex = new LinkedHashMap<>();
+            Map<String, List<Embedding>> embeddingsByIndex = new LinkedHashMap<>();
             
             for (DocumentForIndexing doc : documents) {
-                // Create text segment with metadata
-                Metadata metadata = new Metadata();
-                if (doc.metadata() != null) {
-                    doc.metadata().forEach(metadata::put);
-                }
-                
-                TextSegment segment = TextSegment.from(doc.content(), metadata);
-                segments.add(segment);
-                
                 // Generate embedding
-                List<Float> embedding = embeddingService.generateEmbedding(doc.content());
-                embeddings.add(new Embedding(embedding));
+                Embedding embedding = new Embedding(embeddingService.generateEmbedding(doc.content()));
+                
+                // One copy per partition, each with the metadata of that copy
+                for (IndexPartitioner.WriteTarget target : indexPartitioner.writeTargets(doc.metadata())) {
+                    Metadata metadata = new Metadata();
+                    Map<String, Object> copyMetadata = target.metadataFor(doc.metadata());
+                    if (copyMetadata != null) {
+                        copyMetadata.forEach(metadata::put);
+                    }
+                    segmentsByIndex.computeIfAbsent(target.index(), key -> new ArrayList<>())
+                            .add(TextSegment.from(doc.content(), metadata));
+                    embeddingsByIndex.computeIfAbsent(target.index(), key -> new ArrayList<>()).add(embedding);
+                }
             }
             
-            // Add to store
-            embeddingStore.addAll(embeddings, segments);
+            // Add to each partition in one bulk request
+            segmentsByIndex.forEach((index, segments) -> pipelineMetrics.time(
+                    PipelineMetrics.Stage.INDEXING, embeddingModelId,
+                    () -> storeFor(index).addAll(embeddingsByIndex.get(index), segments)));
             
+            queryCache.invalidateRetrievals();
             logger.info("Successfully added {} documents to vector store", documents.size());
             
         } catch (Exception e) {
@@ -149,22 +362,26 @@ public class VectorSearchService {
         try {
             String documentId = UUID.randomUUID().toString();
             
-            // Create metadata with ID
-            Metadata segmentMetadata = new Metadata();
-            segmentMetadata.put("id", documentId);
-            if (metadata != null) {
-                metadata.forEach(segmentMetadata::put);
-            }
-            
-            // Create text segment
-            TextSegment segment = TextSegment.from(content, segmentMetadata);
-            
             // Generate embedding
             List<Float> embedding = embeddingService.generateEmbedding(content);
             
-            // Add to store
-            String storeId = embeddingStore.add(new Embedding(embedding), segment);
+            // Add a copy to every partition the document belongs to
+            String storeId = null;
+            for (IndexPartitioner.WriteTarget target : indexPartitioner.writeTargets(metadata)) {
+                // Create metadata with ID
+                Metadata segmentMetadata = new Metadata();
+                segmentMetadata.put("id", documentId);
+                Map<String, Object> copyMetadata = target.metadataFor(metadata);
+                if (copyMetadata != null) {
+                    copyMetadata.forEach(segmentMetadata::put);
+                }
+                TextSegment segment = TextSegment.from(content, segmentMetadata);
+                String id = pipelineMetrics.time(PipelineMetrics.Stage.INDEXING, embeddingModelId,
+                        () -> storeFor(target.index()).add(new Embedding(embedding), segment));
+                storeId = storeId != null ? storeId : id;
+            }
             
+            queryCache.invalidateRetrievals();
             logger.info("Added document with ID: {}, store ID: {}", documentId, storeId);
             return documentId;
             
@@ -180,7 +397,21 @@ public class VectorSearchService {
     public void deleteDocuments(List<String> documentIds) {
         try {
             logger.info("Deleting {} documents", documentIds.size());
-            embeddingStore.removeAll(documentIds);
+            if (indexPartitioner.enabled()) {
+                // A chunk may live in several partitions; remove every copy
+                openSearchClient.deleteByQuery(d -> d
+                        .index(indexPartitioner.allIndices())
+                        .allowNoIndices(true)
+                        .ignoreUnavailable(true)
+                        .query(q -> q.bool(b -> b
+                                .should(s -> s.ids(i -> i.values(documentIds)))
+                                .should(s -> s.terms(t -> t.field("metadata.id.keyword")
+                                        .terms(v -> v.value(documentIds.stream().map(FieldValue::of).toList()))))
+                                .minimumShouldMatch("1"))));
+            } else {
+                embeddingStore.removeAll(documentIds);
+            }
+            queryCache.invalidateRetrievals();
             logger.info("Successfully deleted {} documents", documentIds.size());
         } catch (Exception e) {
             logger.error("Error deleting documents", e);
@@ -204,58 +435,119 @@ public class VectorSearchService {
     }
     
     /**
-     * Convert LangChain4j search result to our domain model
+     * k-NN search that fetches only text and metadata; the stored vector never leaves OpenSearch.
+     *
+     * Scores match OpenSearchEmbeddingStore: cosine {@code knn_score} (1 + cos) halved by the
+     * boost, so thresholds keep their 0..1 meaning. With partitioning, only the scope's
+     * partition indices are searched; OpenSearch fans out to their shards in parallel and
+     * merges the top hits, and partitions that do not exist yet are skipped.
      */
-    private RetrievedDocument convertToRetrievedDocument(EmbeddingMatch<TextSegment> match) {
-        TextSegment segment = match.embedded();
-        Metadata metadata = segment.metadata();
+    SearchRequest projectedSearchRequest(List<Float> queryEmbedding, int maxResults,
+                                         List<SearchFilter> filters, double threshold, SearchScope scope) {
+        List<String> includes = new ArrayList<>();
+        includes.add("text");
+        if (metadataFields == null || metadataFields.isEmpty()) {
+            includes.add("metadata");
+        } else {
+            metadataFields.forEach(field -> includes.add("metadata." + field));
+            includes.add("metadata.id");
+        }
         
-        // Extract ID from metadata
-        String id = metadata.getString("id");
-        if (id == null) {
-            id = UUID.randomUUID().toString();
+        List<Query> clauses = new ArrayList<>();
+        if (filters != null) {
+            filters.stream().map(this::toFilterQuery).forEach(clauses::add);
         }
+        if (indexPartitioner.enabled() && scope.stateCode() != null && !scope.stateCode().isBlank()) {
+            clauses.add(matchesOrUnset(IndexPartitioner.STATE_KEY, List.of(scope.stateCode())));
+        }
+        if (indexPartitioner.sharesPartitions() && !scope.coveragePackageCodes().isEmpty()) {
+            clauses.add(matchesOrUnset(IndexPartitioner.PACKAGE_KEY, scope.coveragePackageCodes()));
+        }
+        Query candidates = clauses.isEmpty()
+                ? Query.of(q -> q.matchAll(m -> m))
+                : Query.of(q -> q.bool(b -> b.filter(clauses)));
+        
+        return SearchRequest.of(s -> s
+                .index(indexPartitioner.searchIndices(scope.coveragePackageCodes()))
+                .ignoreUnavailable(true)
+                .allowNoIndices(true)
+                .size(maxResults)
+                .source(src -> src.filter(f -> f.includes(includes).excludes("vector")))
+                .query(q -> q.scriptScore(ss -> ss
+                        .query(candidates)
+                        .minScore((float) threshold)
+                        .boost(0.5f)
+                        .script(script -> script.inline(inline -> inline
+                                .lang("knn")
+                                .source("knn_score")
+                                .params("field", JsonData.of("vector"))
+                                .params("query_value", JsonData.of(queryEmbedding))
+                                .params("space_type", JsonData.of("cosinesimil")))))));
+    }
+    
+    /**
+     * Convert a projected search hit to our domain model
+     */
+    RetrievedDocument toRetrievedDocument(Hit<ProjectedSource> hit) {
+        ProjectedSource source = hit.source();
+        Map<String, Object> metadata = source != null && source.metadata() != null
+                ? new HashMap<>(source.metadata()) : new HashMap<>();
         
-        // Convert metadata to Map
-        Map<String, Object> metadataMap = new HashMap<>();
-        metadata.asMap().forEach(metadataMap::put);
+        // Prefer the ID assigned at indexing time over the store's document ID
+        Object id = metadata.get("id");
         
         return new RetrievedDocument(
-                id,
-                segment.text(),
-                match.score(),
-                metadataMap
+                id != null ? id.toString() : hit.id(),
+                source != null ? source.text() : null,
+                hit.score() != null ? hit.score() : 0.0,
+                metadata
         );
     }
     
     /**
-     * Build metadata filter from search filters
+     * Build a metadata filter clause from a search filter
      */
-    private Metadata buildMetadataFilter(List<SearchFilter> filters) {
-        Metadata metadata = new Metadata();
-        
-        for (SearchFilter filter : filters) {
-            switch (filter.operator()) {
-                case EQUALS -> metadata.put(filter.field(), filter.value());
-                case CONTAINS -> {
-                    // For contains, we'll need to implement custom logic
-                    // This is a simplified approach
-                    metadata.put(filter.field(), filter.value());
-                }
-                case GREATER_THAN, LESS_THAN -> {
-                    // For numeric comparisons, convert value
-                    try {
-                        Double numValue = Double.parseDouble(filter.value());
-                        metadata.put(filter.field(), numValue);
-                    } catch (NumberFormatException e) {
-                        logger.warn("Cannot convert '{}' to number for comparison", filter.value());
-                        metadata.put(filter.field(), filter.value());
-                    }
-                }
-            }
+    private Query toFilterQuery(SearchFilter filter) {
+        String field = "metadata." + filter.field();
+        return switch (filter.operator()) {
+            case EQUALS -> Query.of(q -> q.term(t -> t.field(field + ".keyword").value(FieldValue.of(filter.value()))));
+            case CONTAINS -> Query.of(q -> q.match(m -> m.field(field).query(FieldValue.of(filter.value()))));
+            case GREATER_THAN -> Query.of(q -> q.range(r -> r.field(field).gt(rangeValue(filter.value()))));
+            case LESS_THAN -> Query.of(q -> q.range(r -> r.field(field).lt(rangeValue(filter.value()))));
+            case NOT_EQUALS -> Query.of(q -> q.bool(b -> b.mustNot(m -> m.term(
+                    t -> t.field(field + ".keyword").value(FieldValue.of(filter.value()))))));
+            case IN -> termsQuery(field + ".keyword", filter.value());
+            case NOT_IN -> Query.of(q -> q.bool(b -> b.mustNot(termsQuery(field + ".keyword", filter.value()))));
+        };
+    }
+    
+    /**
+     * Chunks tagged with one of the values, or not tagged at all (they apply to everyone)
+     */
+    private static Query matchesOrUnset(String key, List<String> values) {
+        String field = "metadata." + key;
+        Query tagged = Query.of(q -> q.terms(t -> t.field(field + ".keyword")
+                .terms(v -> v.value(values.stream().map(FieldValue::of).toList()))));
+        Query untagged = Query.of(q -> q.bool(b -> b.mustNot(m -> m.exists(e -> e.field(field)))));
+        return Query.of(q -> q.bool(b -> b.should(tagged, untagged).minimumShouldMatch("1")));
+    }
+    
+    private static Query termsQuery(String field, String commaSeparatedValues) {
+        List<FieldValue> values = Arrays.stream(commaSeparatedValues.split(","))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .map(FieldValue::of)
+                .toList();
+        return Query.of(q -> q.terms(t -> t.field(field).terms(v -> v.value(values))));
+    }
+    
+    private JsonData rangeValue(String value) {
+        try {
+            return JsonData.of(Double.parseDouble(value));
+        } catch (NumberFormatException e) {
+            logger.warn("Cannot convert '{}' to number for comparison", value);
+            return JsonData.of(value);
         }
-        
-        return metadata;
     }
     
     /**
@@ -277,6 +569,55 @@ public class VectorSearchService {
         }
     }
     
+    /**
+     * Identifies copies of one chunk written to several partitions, which get different store IDs
+     */
+    private static String partitionCopyKey(RetrievedDocument document) {
+        Object documentId = document.metadata().get("document_id");
+        Object chunkIndex = document.metadata().get("chunk_index");
+        return documentId != null && chunkIndex != null ? documentId + "#" + chunkIndex : document.id();
+    }
+    
+    /**
+     * Store writing to one partition index, created on first use
+     */
+    private OpenSearchEmbeddingStore storeFor(String index) {
+        if (!indexPartitioner.enabled()) {
+            return embeddingStore;
+        }
+        return partitionStores.computeIfAbsent(index, name -> OpenSearchEmbeddingStore.builder()
+                .openSearchClient(openSearchClient)
+                .indexName(name)
+                .dimension(1536)
+                .build());
+    }
+    
+    /**
+     * Coverage packages and state a request is entitled to; empty packages search only the shared partition
+     */
+    public record SearchScope(
+            List<String> coveragePackageCodes,
+            String stateCode
+    ) {
+        public static final SearchScope UNSCOPED = new SearchScope(List.of(), null);
+        
+        public SearchScope {
+            coveragePackageCodes = coveragePackageCodes != null ? List.copyOf(coveragePackageCodes) : List.of();
+        }
+        
+        public static SearchScope of(QueryRequest request) {
+            return new SearchScope(request.coveragePackageCodes(), request.stateCode());
+        }
+    }
+    
+    /**
+     * The {@code _source} fields fetched for a hit
+     */
+    public record ProjectedSource(
+            String text,
+            Map<String, Object> metadata
+    ) {}
+    
     /**
      * Document for indexing record
      */
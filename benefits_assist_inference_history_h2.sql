@@ -1,6 +1,8 @@
-CREATE TABLE benefits_assist_inference_history
+-- H2 variant of benefitsassist_inference_history.sql (same types and indexes; H2 has no
+-- declarative partitioning, so request_date is only an index column here)
+CREATE TABLE IF NOT EXISTS benefits_assist_inference_history
 (
-    id                         BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id                         UUID DEFAULT RANDOM_UUID() NOT NULL,
     client_name                VARCHAR(255)             NOT NULL,
     client_session_id          VARCHAR(255),
     tracking_id                VARCHAR(255)             NOT NULL,
@@ -10,20 +12,42 @@ CREATE TABLE benefits_assist_inference_history
     conversation_id            VARCHAR(255)             NOT NULL,
     message_id                 VARCHAR(255)             NOT NULL,
     request_date               DATE                     NOT NULL,
-    user_query                 TEXT                     NOT NULL,
-    response_text              TEXT                     NOT NULL,
+    user_query                 CLOB                     NOT NULL,
+    response_text              CLOB                     NOT NULL,
     coverage_package_codes     VARCHAR(255)             NOT NULL,
     group_anniversary_date     DATE,
-    state_code                 CHAR(20),
+    state_code                 VARCHAR(20),
     conversation_model_name    VARCHAR(255),
     conversation_model_version VARCHAR(50),
     embedding_model_name       VARCHAR(255),
     embedding_model_version    VARCHAR(50),
-    inference_confidence_score VARCHAR(50),
+    inference_confidence_score NUMERIC(5, 4),
     conversation_intent        VARCHAR(255),
-    prompt_tokens              VARCHAR(255),
-    completion_tokens          VARCHAR(255),
-    total_tokens               VARCHAR(255),
-    rag_chunks_retrieved       VARCHAR(255),
-    rag_retrieval_score        VARCHAR(255)
+    prompt_tokens              INTEGER,
+    completion_tokens          INTEGER,
+    total_tokens               INTEGER,
+    rag_chunks_retrieved       INTEGER,
+    rag_retrieval_score        DOUBLE PRECISION,
+    PRIMARY KEY (id, request_date)
+);
+
+CREATE INDEX IF NOT EXISTS idx_inference_history_conversation
+    ON benefits_assist_inference_history (conversation_id, submit_date_time DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_inference_history_tracking
+    ON benefits_assist_inference_history (tracking_id);
+
+CREATE INDEX IF NOT EXISTS idx_inference_history_client_date
+    ON benefits_assist_inference_history (request_date, client_name);
+
+-- Curated fast-path answers (FastPathAnswerStore); embeddings are normalized float32 bytes
+CREATE TABLE IF NOT EXISTS benefits_assist_fast_path_answer
+(
+    id                     VARCHAR(255)             NOT NULL PRIMARY KEY,
+    question               VARCHAR(1000)            NOT NULL,
+    answer                 CLOB                     NOT NULL,
+    coverage_package_codes VARCHAR(1000)            NOT NULL,
+    state_codes            VARCHAR(1000)            NOT NULL,
+    embedding              VARBINARY                NOT NULL,
+    updated_at             TIMESTAMP WITH TIME ZONE NOT NULL
 );
@@ -1,6 +1,8 @@
+-- Inference history, range-partitioned by request_date (one partition per month).
+-- Existing databases: see benefitsassist_inference_history_migration_v2.sql
 CREATE TABLE benefits_assist_inference_history
 (
-    id                         UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    id                         UUID                     NOT NULL DEFAULT gen_random_uuid(),
     client_name                VARCHAR(255)             NOT NULL,
     client_session_id          VARCHAR(255),
     tracking_id                VARCHAR(255)             NOT NULL,
@@ -14,16 +16,95 @@ CREATE TABLE benefits_assist_inference_history
     response_text              TEXT                     NOT NULL,
     coverage_package_codes     VARCHAR(255)             NOT NULL,
     group_anniversary_date     DATE,
-    state_code                 CHAR(20),
+    state_code                 VARCHAR(20),
     conversation_model_name    VARCHAR(255),
     conversation_model_version VARCHAR(50),
     embedding_model_name       VARCHAR(255),
     embedding_model_version    VARCHAR(50),
-    inference_confidence_score VARCHAR(50),
+    inference_confidence_score NUMERIC(5, 4),
     conversation_intent        VARCHAR(255),
-    prompt_tokens              VARCHAR(255),
-    completion_tokens          VARCHAR(255),
-    total_tokens               VARCHAR(255),
-    rag_chunks_retrieved       VARCHAR(255),
-    rag_retrieval_score        VARCHAR(255)
+    prompt_tokens              INTEGER,
+    completion_tokens          INTEGER,
+    total_tokens               INTEGER,
+    rag_chunks_retrieved       INTEGER,
+    rag_retrieval_score        DOUBLE PRECISION,
+    -- The partition key must be part of every unique constraint on a partitioned table
+    PRIMARY KEY (id, request_date)
+) PARTITION BY RANGE (request_date);
+
+CREATE TABLE benefits_assist_inference_history_default PARTITION OF benefits_assist_inference_history DEFAULT;
+
+-- Creates the monthly partitions from the current month through months_ahead months ahead,
+-- plus any earlier month that already has rows in the default partition. Those rows are
+-- moved into the new partition first; attaching a range the default partition still holds
+-- rows for would fail. Idempotent; run daily (pg_cron below) and on application start.
+CREATE OR REPLACE FUNCTION benefits_assist_inference_history_create_partitions(months_ahead INTEGER DEFAULT 3)
+    RETURNS INTEGER
+    LANGUAGE plpgsql
+AS $$
+DECLARE
+    month_start DATE;
+    month_end   DATE;
+    last_month  DATE := (date_trunc('month', CURRENT_DATE) + make_interval(months => months_ahead))::DATE;
+    partition   TEXT;
+    created     INTEGER := 0;
+BEGIN
+    SELECT LEAST(date_trunc('month', CURRENT_DATE), date_trunc('month', min(request_date)))::DATE
+    INTO month_start
+    FROM benefits_assist_inference_history_default;
+
+    WHILE month_start <= last_month LOOP
+        month_end := (month_start + INTERVAL '1 month')::DATE;
+        partition := 'benefits_assist_inference_history_' || to_char(month_start, 'YYYY_MM');
+        IF to_regclass(partition) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I (LIKE benefits_assist_inference_history INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                           partition);
+            EXECUTE format('WITH moved AS (DELETE FROM benefits_assist_inference_history_default'
+                               || ' WHERE request_date >= %L AND request_date < %L RETURNING *)'
+                               || ' INSERT INTO %I SELECT * FROM moved',
+                           month_start, month_end, partition);
+            EXECUTE format('ALTER TABLE benefits_assist_inference_history ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                           partition, month_start, month_end);
+            created := created + 1;
+        END IF;
+        month_start := month_end;
+    END LOOP;
+    RETURN created;
+END $$;
+
+SELECT benefits_assist_inference_history_create_partitions(3);
+
+-- Keep partitions ahead of the calendar where pg_cron is available (RDS / Aurora: add it to
+-- shared_preload_libraries); the application also calls the function on start.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_cron') THEN
+        PERFORM cron.schedule('inference-history-partitions', '0 3 * * *',
+                              'SELECT benefits_assist_inference_history_create_partitions(3)');
+    END IF;
+END $$;
+
+-- Keyset pagination of a conversation, newest first; INCLUDE keeps list views index-only
+CREATE INDEX idx_inference_history_conversation
+    ON benefits_assist_inference_history (conversation_id, submit_date_time DESC, id DESC)
+    INCLUDE (message_id, tracking_id);
+
+CREATE INDEX idx_inference_history_tracking
+    ON benefits_assist_inference_history (tracking_id);
+
+-- Per-client analytics over a date range
+CREATE INDEX idx_inference_history_client_date
+    ON benefits_assist_inference_history (request_date, client_name)
+    INCLUDE (total_tokens, inference_confidence_score);
+
+-- Curated fast-path answers (FastPathAnswerStore); embeddings are normalized float32 bytes
+CREATE TABLE IF NOT EXISTS benefits_assist_fast_path_answer
+(
+    id                     VARCHAR(255)             NOT NULL PRIMARY KEY,
+    question               VARCHAR(1000)            NOT NULL,
+    answer                 TEXT                     NOT NULL,
+    coverage_package_codes VARCHAR(1000)            NOT NULL,
+    state_codes            VARCHAR(1000)            NOT NULL,
+    embedding              BYTEA                    NOT NULL,
+    updated_at             TIMESTAMP WITH TIME ZONE NOT NULL
 );
@@ -0,0 +1,42 @@
+-- Migrates the original VARCHAR-typed, unpartitioned inference history table to the typed,
+-- indexed, range-partitioned layout in benefitsassist_inference_history.sql.
+-- Run inside a maintenance window; the copy holds a lock on the old table.
+BEGIN;
+
+ALTER TABLE benefits_assist_inference_history RENAME TO benefits_assist_inference_history_v1;
+
+\i benefitsassist_inference_history.sql
+
+-- Partitions covering every month already present in the old table
+DO $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR month_start IN
+        SELECT DISTINCT date_trunc('month', request_date)::DATE
+        FROM benefits_assist_inference_history_v1
+    LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS benefits_assist_inference_history_%s PARTITION OF benefits_assist_inference_history FOR VALUES FROM (%L) TO (%L)',
+            to_char(month_start, 'YYYY_MM'), month_start, (month_start + INTERVAL '1 month')::DATE);
+    END LOOP;
+END $$;
+
+-- Non-numeric legacy values become NULL instead of failing the cast
+INSERT INTO benefits_assist_inference_history
+SELECT id, client_name, client_session_id, tracking_id, submit_date_time, user_id, user_role,
+       conversation_id, message_id, request_date, user_query, response_text, coverage_package_codes,
+       group_anniversary_date, rtrim(state_code), conversation_model_name, conversation_model_version,
+       embedding_model_name, embedding_model_version,
+       CASE WHEN inference_confidence_score ~ '^[0-9]*\.?[0-9]+$' THEN inference_confidence_score::NUMERIC(5, 4) END,
+       conversation_intent,
+       CASE WHEN prompt_tokens ~ '^[0-9]+$' THEN prompt_tokens::INTEGER END,
+       CASE WHEN completion_tokens ~ '^[0-9]+$' THEN completion_tokens::INTEGER END,
+       CASE WHEN total_tokens ~ '^[0-9]+$' THEN total_tokens::INTEGER END,
+       CASE WHEN rag_chunks_retrieved ~ '^[0-9]+$' THEN rag_chunks_retrieved::INTEGER END,
+       CASE WHEN rag_retrieval_score ~ '^-?[0-9]*\.?[0-9]+([eE][-+]?[0-9]+)?$' THEN rag_retrieval_score::DOUBLE PRECISION END
+FROM benefits_assist_inference_history_v1;
+
+DROP TABLE benefits_assist_inference_history_v1;
+
+COMMIT;